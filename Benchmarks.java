@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+// to represent one operation of the game measured on boards of several sizes
+interface IBenchmark {
+  // returns the name of the operation
+  String name();
+
+  // EFFECT: prepares a fresh size x size board to measure on
+  void setup(int size);
+
+  // EFFECT: runs the operation once; returns a value that depends on its result,
+  // so the JIT cannot drop the work
+  long run();
+}
+
+// to measure one operation of a LightEmAll game, dealt from a fixed seed so
+// every run measures the same boards
+class GameBenchmark implements IBenchmark {
+  String name;
+  LightEmAll game;
+  ArrayList<Edge> edges;
+  PersistentBoard persistent;
+  Random rand;
+
+  GameBenchmark(String name) {
+    this.name = name;
+  }
+
+  public String name() {
+    return this.name;
+  }
+
+  public void setup(int size) {
+    this.game = new LightEmAll(board(size), new Random(size));
+    this.edges = this.game.loEdges(new Random(size));
+    this.persistent = new PersistentBoard(this.game);
+    this.rand = new Random(size);
+  }
+
+  public long run() {
+    switch (this.name) {
+      case "makeBoard":
+        return board(this.game.width).size();
+      case "loEdges":
+        return this.game.loEdges(this.rand).size();
+      case "sortEdges":
+        // sorts a fresh copy, as sorting the sorted list again would be too easy
+        return new Utils().sortEdges(new ArrayList<Edge>(this.edges)).get(0).weight;
+      case "kruskal":
+        return this.game.kruskal().size();
+      case "boardComplete":
+        new Utils().boardComplete(this.game.mst);
+        return this.game.mst.size();
+      case "shuffle":
+        this.game.shuffle(this.rand);
+        return this.game.nodes.get(0).pack();
+      case "bfs":
+        this.game.bfs();
+        return this.game.poweredCount;
+      case "gameWon":
+        return this.game.gameWon() ? 1 : 0;
+      case "rotate+bfs":
+        this.game.rotate(this.nextTile());
+        this.game.bfs();
+        return this.game.poweredCount;
+      case "rotate+updatePower":
+        GamePiece g = this.nextTile();
+        this.game.rotate(g);
+        this.game.updatePower(g);
+        return this.game.poweredCount;
+      case "copyBoard":
+        return board(this.game.width).size() + this.game.pack().tiles.length;
+      case "persistentRotate":
+        GamePiece tile = this.nextTile();
+        this.persistent = this.persistent.rotate(tile.col * this.game.height + tile.row);
+        return this.persistent.size();
+      case "makeScene":
+        // paints the whole view, as after a pan, a zoom or a full bfs
+        this.game.view = null;
+        return this.game.makeScene().hashCode();
+      case "click+makeScene":
+        GamePiece clicked = this.nextTile();
+        this.game.rotate(clicked);
+        this.game.updatePower(clicked);
+        return this.game.makeScene().hashCode();
+      default:
+        throw new IllegalArgumentException("Unknown benchmark: " + this.name);
+    }
+  }
+
+  // returns the next tile to click, drawn uniformly from the whole board, so clicks
+  // cut and re-root anywhere in the power tree, and mostly out of view
+  GamePiece nextTile() {
+    return this.game.nodes.get(this.rand.nextInt(this.game.nodes.size()));
+  }
+
+  // returns a new size x size board of GamePieces
+  static ArrayList<ArrayList<GamePiece>> board(int size) {
+    return new Utils().makeBoard(size, size, LightEmAll.MAX_SIZE, LightEmAll.MAX_SIZE);
+  }
+}
+
+// to measure one operation of a HeadlessLightEmAll game, dealt from a fixed seed
+// so every run measures the same boards
+class HeadlessBenchmark implements IBenchmark {
+  String name;
+  HeadlessLightEmAll game;
+  Random rand;
+
+  HeadlessBenchmark(String name) {
+    this.name = name;
+  }
+
+  public String name() {
+    return this.name;
+  }
+
+  public void setup(int size) {
+    this.game = new HeadlessLightEmAll(size, size, new Random(size));
+    this.rand = new Random(size);
+  }
+
+  public long run() {
+    switch (this.name) {
+      case "headlessGenerate":
+        return new HeadlessLightEmAll(this.game.width, this.game.height, this.rand)
+            .poweredCount;
+      case "headlessBfs":
+        this.game.bfs();
+        return this.game.poweredCount;
+      case "headlessClick":
+        int i = this.rand.nextInt(this.game.width * this.game.height);
+        this.game.click(i / this.game.height, i % this.game.height);
+        return this.game.poweredCount;
+      default:
+        throw new IllegalArgumentException("Unknown benchmark: " + this.name);
+    }
+  }
+}
+
+// measures the time and allocation of every operation of the game on boards of
+// every size, the way JMH does with -prof gc: warmup iterations first, then
+// measured iterations of a fixed length, reporting the mean time per operation
+// with its 99.9% error and the bytes allocated per operation. Results can be saved
+// and later runs compared against them, so every change is measured against a
+// fixed baseline. headlessRetained reports, in place of bytes per operation, the
+// bytes a HeadlessLightEmAll keeps per tile once generated. Run with:
+//   java -Xmx4g Benchmarks [-only name,...] [-save file] [-baseline file] [size ...]
+// e.g. java -Xmx4g Benchmarks -save base.txt 4 16 64 256 1000 2000
+class Benchmarks {
+  static final String[] NAMES = {"makeBoard", "loEdges", "sortEdges", "kruskal",
+      "boardComplete", "shuffle", "bfs", "gameWon", "rotate+bfs", "rotate+updatePower",
+      "copyBoard", "persistentRotate", "makeScene", "click+makeScene",
+      "headlessGenerate", "headlessBfs", "headlessClick", "headlessRetained"};
+  static final int WARMUPS = 3;
+  static final int ITERATIONS = 5;
+  static final long ITERATION_NANOS = 200000000L;
+
+  // where the results of every operation end up, so the JIT cannot drop the work
+  // that made them
+  static volatile long blackhole;
+  // keeps a game reachable while the memory it retains is measured
+  static volatile Object held;
+
+  public static void main(String[] args) throws IOException {
+    List<String> names = Arrays.asList(NAMES);
+    String save = null;
+    String baseline = null;
+    ArrayList<Integer> sizes = new ArrayList<Integer>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-only")) {
+        names = Arrays.asList(args[++i].split(","));
+      }
+      else if (args[i].equals("-save")) {
+        save = args[++i];
+      }
+      else if (args[i].equals("-baseline")) {
+        baseline = args[++i];
+      }
+      else {
+        sizes.add(Integer.parseInt(args[i]));
+      }
+    }
+    if (sizes.isEmpty()) {
+      sizes.addAll(Arrays.asList(4, 16, 64, 256, 1000, 2000));
+    }
+    HashMap<String, Double> base = new HashMap<String, Double>();
+    if (baseline != null) {
+      for (String line : Files.readAllLines(Paths.get(baseline))) {
+        String[] fields = line.split("\t");
+        base.put(fields[0] + "\t" + fields[1], Double.parseDouble(fields[2]));
+      }
+    }
+    StringBuilder results = new StringBuilder();
+    System.out.printf("%-20s %6s %16s %12s %14s%s%n", "benchmark", "size", "ns/op",
+        "error", "bytes/op", baseline == null ? "" : "  vs baseline");
+    for (String name : names) {
+      for (int size : sizes) {
+        if (name.equals("headlessRetained")) {
+          System.out.printf("%-20s %6d %16s %12s %14.1f%n", name, size, "-", "-",
+              retainedPerTile(size));
+          continue;
+        }
+        double[] r = measure(benchmark(name), size);
+        String key = name + "\t" + size;
+        String ratio = "";
+        if (base.containsKey(key)) {
+          ratio = String.format("  x%.2f", r[0] / base.get(key));
+        }
+        System.out.printf("%-20s %6d %16.1f %12.1f %14.0f%s%n", name, size, r[0], r[1], r[2],
+            ratio);
+        results.append(key).append("\t").append(r[0]).append("\t").append(r[2]).append("\n");
+      }
+    }
+    if (save != null) {
+      Files.write(Paths.get(save), results.toString().getBytes());
+    }
+  }
+
+  // returns the benchmark of the operation with the given name
+  static IBenchmark benchmark(String name) {
+    if (name.startsWith("headless")) {
+      return new HeadlessBenchmark(name);
+    }
+    return new GameBenchmark(name);
+  }
+
+  // returns the mean nanoseconds per operation of the given benchmark on a
+  // size x size board, its 99.9% error, and the bytes allocated per operation
+  static double[] measure(IBenchmark benchmark, int size) {
+    benchmark.setup(size);
+    // finds how many operations fill an iteration, warming up as it goes
+    long batch = 1;
+    long sink = 0;
+    for (int w = 0; w < WARMUPS; w++) {
+      long start = System.nanoTime();
+      long ops = 0;
+      while (System.nanoTime() - start < ITERATION_NANOS) {
+        sink += benchmark.run();
+        ops++;
+      }
+      batch = ops;
+    }
+    double[] times = new double[ITERATIONS];
+    long allocated = 0;
+    for (int k = 0; k < ITERATIONS; k++) {
+      long bytes = allocatedBytes();
+      long start = System.nanoTime();
+      for (long op = 0; op < batch; op++) {
+        sink += benchmark.run();
+      }
+      times[k] = (double) (System.nanoTime() - start) / batch;
+      allocated += allocatedBytes() - bytes;
+    }
+    blackhole = sink;
+    double mean = 0;
+    for (double time : times) {
+      mean += time / ITERATIONS;
+    }
+    double variance = 0;
+    for (double time : times) {
+      variance += (time - mean) * (time - mean) / (ITERATIONS - 1);
+    }
+    // the student t quantile for 99.9% with 4 degrees of freedom, as JMH reports
+    double error = 8.610 * Math.sqrt(variance / ITERATIONS);
+    return new double[] {mean, error, (double) allocated / (batch * ITERATIONS)};
+  }
+
+  // returns the bytes a shuffled and powered size x size HeadlessLightEmAll keeps
+  // per tile, after warming up on a small board
+  static double retainedPerTile(int size) {
+    for (int i = 0; i < 5; i++) {
+      blackhole += new HeadlessLightEmAll(200, 200, new Random(i)).poweredCount;
+    }
+    // the first collections after the warmup may still free its garbage
+    usedMemory();
+    long before = usedMemory();
+    held = new HeadlessLightEmAll(size, size, new Random(size));
+    long retained = usedMemory() - before;
+    held = null;
+    return (double) retained / ((long) size * size);
+  }
+
+  // returns the heap in use after a garbage collection
+  static long usedMemory() {
+    Runtime rt = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return rt.totalMemory() - rt.freeMemory();
+  }
+
+  // returns the bytes this thread allocated so far, or 0 where the runtime cannot tell
+  static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
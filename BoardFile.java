@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// to represent a saved game as a memory-mapped file, read and written a tile
+// at a time without building GamePieces. The format, all numbers big-endian:
+//   magic "LEAB", version, width, height, station column, station row,
+//   clicks, click budget, flags (1 if the solution is saved), par   10 ints
+//   the connector bits of every tile, a nibble each, low nibble first
+//   the clicks that solve every tile, 2 bits each, lowest bits first
+// in node index order (col * height + row), i.e. 40 bytes plus 3/4 of a byte
+// per tile: a 20 x 14 puzzle takes 250 bytes and a 2000 x 2000 one 3 MB.
+// The operating system pages the file in as tiles are read, so even huge
+// boards open at once
+class BoardFile {
+  static final int MAGIC = 0x4C454142;
+  static final int VERSION = 2;
+  static final int HEADER = 40;
+  // the offsets of the header fields
+  static final int WIDTH = 8;
+  static final int HEIGHT = 12;
+  static final int STATION_COL = 16;
+  static final int STATION_ROW = 20;
+  static final int CLICKS = 24;
+  static final int BUDGET = 28;
+  static final int FLAGS = 32;
+  static final int PAR = 36;
+  static final int HAS_SOLUTION = 1;
+
+  MappedByteBuffer buffer;
+  int width;
+  int height;
+  // where the solution rotations start
+  int rotations;
+
+  // maps the given buffer, which must hold a board file
+  BoardFile(MappedByteBuffer buffer) {
+    if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a board file");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Unsupported board file version");
+    }
+    this.buffer = buffer;
+    this.width = buffer.getInt(WIDTH);
+    this.height = buffer.getInt(HEIGHT);
+    long size = (long) this.width * this.height;
+    this.rotations = (int) (HEADER + (size + 1) / 2);
+    if (this.width < 2 || this.height < 2 || buffer.capacity() != length(size)) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    if (this.stationCol() < 0 || this.stationCol() >= this.width
+        || this.stationRow() < 0 || this.stationRow() >= this.height) {
+      throw new IllegalArgumentException("Invalid power station");
+    }
+  }
+
+  // returns the length of the file of a board with the given number of tiles
+  static long length(long size) {
+    return HEADER + (size + 1) / 2 + (size + 3) / 4;
+  }
+
+  // opens the board file at the given path, for writing too if asked
+  static BoardFile open(Path file, boolean writable) {
+    try (FileChannel channel = writable
+        ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        : FileChannel.open(file, StandardOpenOption.READ)) {
+      return new BoardFile(channel.map(writable ? FileChannel.MapMode.READ_WRITE
+          : FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // creates, or overwrites, the board file at the given path for an empty
+  // width x height board with its station in the top left corner; like a game,
+  // the board is at least 2 x 2
+  static BoardFile create(Path file, int width, int height) {
+    long size = (long) width * height;
+    if (width < 2 || height < 2 || length(size) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length(size));
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putInt(WIDTH, width);
+      buffer.putInt(HEIGHT, height);
+      return new BoardFile(buffer);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // EFFECT: saves the given game to the given path. The game is written to a file
+  // beside it, forced to the disk and only then moved over the path in one step,
+  // so a save that fails halfway leaves the game saved there before as it was
+  static void save(LightEmAll game, Path file) {
+    Path temp;
+    try {
+      temp = Files.createTempFile(file.toAbsolutePath().getParent(),
+          file.getFileName().toString(), ".tmp");
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    try {
+      BoardFile saved = create(temp, game.width, game.height);
+      PackedBoard board = game.pack();
+      for (int i = 0; i < board.tiles.length; i++) {
+        saved.setWires(i, board.wires(i));
+        saved.setRotations(i, game.rotationsToSolve(i));
+      }
+      saved.buffer.putInt(STATION_COL, game.powerCol);
+      saved.buffer.putInt(STATION_ROW, game.powerRow);
+      saved.buffer.putInt(CLICKS, game.countClicks);
+      saved.buffer.putInt(BUDGET, game.clickBudget);
+      saved.buffer.putInt(FLAGS, game.solutionWires == null ? 0 : HAS_SOLUTION);
+      saved.buffer.putInt(PAR, game.par);
+      saved.buffer.force();
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    finally {
+      // once moved there is nothing left to delete
+      try {
+        Files.deleteIfExists(temp);
+      }
+      catch (IOException e) {
+        // the save itself already succeeded or failed
+      }
+    }
+  }
+
+  // returns the game saved at the given path
+  static LightEmAll load(Path file) {
+    return open(file, false).toGame();
+  }
+
+  // returns the saved game, powered from its station
+  LightEmAll toGame() {
+    ArrayList<ArrayList<GamePiece>> board =
+        new Utils().makeBoard(this.width, this.height, LightEmAll.MAX_SIZE, LightEmAll.MAX_SIZE);
+    this.toPackedBoard().unpack(board);
+    LightEmAll game = new LightEmAll(board, this.solution());
+    game.countClicks = this.clicks();
+    game.clickBudget = this.buffer.getInt(BUDGET);
+    // par is the clicks the board took when dealt, not the clicks it takes now
+    game.par = this.par();
+    game.bfs();
+    return game;
+  }
+
+  // returns the saved board, with the station but unpowered
+  PackedBoard toPackedBoard() {
+    PackedBoard board = new PackedBoard(this.width, this.height);
+    for (int i = 0; i < board.tiles.length; i++) {
+      board.tiles[i] = (byte) this.wires(i);
+    }
+    board.set(board.index(this.stationCol(), this.stationRow()), PackedBoard.STATION, true);
+    return board;
+  }
+
+  // returns the saved solution, as wires by node index, or null if there is none
+  int[] solution() {
+    if ((this.buffer.getInt(FLAGS) & HAS_SOLUTION) == 0) {
+      return null;
+    }
+    int[] solution = new int[this.width * this.height];
+    for (int i = 0; i < solution.length; i++) {
+      solution[i] = this.wires(i);
+      for (int k = this.rotations(i); k > 0; k--) {
+        solution[i] = PackedBoard.rotateWires(solution[i]);
+      }
+    }
+    return solution;
+  }
+
+  // returns the connector bits of the tile at the given node index
+  int wires(int i) {
+    return (this.buffer.get(HEADER + i / 2) >> (i % 2 * 4)) & PackedBoard.WIRES;
+  }
+
+  // EFFECT: sets the connector bits of the tile at the given node index
+  void setWires(int i, int wires) {
+    int at = HEADER + i / 2;
+    int shift = i % 2 * 4;
+    this.buffer.put(at, (byte) ((this.buffer.get(at) & ~(PackedBoard.WIRES << shift))
+        | (wires & PackedBoard.WIRES) << shift));
+  }
+
+  // returns how many clicks solve the tile at the given node index
+  int rotations(int i) {
+    return (this.buffer.get(this.rotations + i / 4) >> (i % 4 * 2)) & 3;
+  }
+
+  // EFFECT: sets how many clicks solve the tile at the given node index
+  void setRotations(int i, int clicks) {
+    int at = this.rotations + i / 4;
+    int shift = i % 4 * 2;
+    this.buffer.put(at, (byte) ((this.buffer.get(at) & ~(3 << shift)) | (clicks & 3) << shift));
+  }
+
+  // returns the column and row of the saved power station
+  int stationCol() {
+    return this.buffer.getInt(STATION_COL);
+  }
+
+  int stationRow() {
+    return this.buffer.getInt(STATION_ROW);
+  }
+
+  // returns the saved click count
+  int clicks() {
+    return this.buffer.getInt(CLICKS);
+  }
+
+  // returns the saved par
+  int par() {
+    return this.buffer.getInt(PAR);
+  }
+}
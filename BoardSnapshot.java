@@ -0,0 +1,62 @@
+// to represent the state of a ConcurrentBoard at one instant: its tiles, powered
+// from the station, how many rotations led to it and whether it is won. Nothing
+// can change it, so any number of threads can read it
+class BoardSnapshot {
+  // the tiles and cells, which nothing changes once made; board() hands out a copy
+  final PackedBoard board;
+  final long[] cells;
+  final long rotations;
+  final int poweredCount;
+  final boolean won;
+
+  // makes the snapshot of the given collected cells of a width x height board
+  BoardSnapshot(int width, int height, long[] cells) {
+    PackedBoard board = new PackedBoard(width, height);
+    long rotations = 0;
+    int station = 0;
+    for (int i = 0; i < cells.length; i++) {
+      board.tiles[i] = (byte) (cells[i] & ConcurrentBoard.TILE);
+      rotations += cells[i] >>> ConcurrentBoard.VERSION_SHIFT;
+      if (board.has(i, PackedBoard.STATION)) {
+        station = i;
+      }
+    }
+    // powers the board from the station; the powered bit marks the tiles we've been at
+    int[] queue = new int[cells.length];
+    board.set(station, PackedBoard.POWERED, true);
+    queue[0] = station;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int i = queue[head];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        if (board.connected(i, d)) {
+          int n = board.neighbor(i, d);
+          if (!board.has(n, PackedBoard.POWERED)) {
+            board.set(n, PackedBoard.POWERED, true);
+            queue[tail++] = n;
+          }
+        }
+      }
+    }
+    this.board = board;
+    this.cells = cells;
+    this.rotations = rotations;
+    this.poweredCount = tail;
+    this.won = tail == cells.length;
+  }
+
+  // returns the packed bits of the tile at the given index, powered bit included
+  int tile(int i) {
+    return this.board.tiles[i];
+  }
+
+  // returns how many times the tile at the given index had been rotated
+  long version(int i) {
+    return this.cells[i] >>> ConcurrentBoard.VERSION_SHIFT;
+  }
+
+  // returns a copy of the tiles of this snapshot
+  PackedBoard board() {
+    return this.board.copy();
+  }
+}
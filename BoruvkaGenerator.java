@@ -0,0 +1,163 @@
+import java.util.random.RandomGenerator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// to generate the tree with boruvka's algorithm on a fork-join pool: every pass
+// finds, in parallel, the cheapest edge leaving every component and adds them all.
+// Edge weights are a function of one seed drawn from the random generator and the edge index,
+// and ties are broken by edge index, so the tree is the unique minimum spanning
+// tree of those weights: the same tree, emitted in the same order, whatever the
+// number of threads
+class BoruvkaGenerator implements IMazeGenerator {
+  // how many nodes one task handles before splitting no further
+  static final int THRESHOLD = 1 << 14;
+
+  ForkJoinPool pool;
+
+  // generates on the common fork-join pool
+  BoruvkaGenerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // generates on the given fork-join pool
+  BoruvkaGenerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    int size = width * height;
+    long seed = rand.nextLong();
+    UnionFind components = new UnionFind(size);
+    // the component of every node, named by its root in components
+    int[] comp = new int[size];
+    // the cheapest packed edge leaving every component, by root
+    AtomicLongArray cheapest = new AtomicLongArray(size);
+    this.pool.invoke(new BoruvkaPass(width, height, seed, components.parent, comp, cheapest,
+        false, 0, size));
+    // the roots of the components left, in increasing order
+    int[] roots = new int[size];
+    for (int i = 0; i < size; i++) {
+      roots[i] = i;
+    }
+    int left = size;
+    while (components.sets > 1) {
+      this.pool.invoke(new BoruvkaPass(width, height, seed, components.parent, comp, cheapest,
+          true, 0, size));
+      // adds the cheapest edge of every component, in order of the components' roots;
+      // two components that picked the same edge only add it once. Every pass at
+      // least halves the components, so these loops do O(n) work in all
+      for (int k = 0; k < left; k++) {
+        int e = PackedEdges.edge(cheapest.get(roots[k]));
+        if (components.union(PackedEdges.from(e), PackedEdges.to(e, height))) {
+          sink.accept(e);
+        }
+      }
+      // keeps the roots that are still roots, in order
+      int kept = 0;
+      for (int k = 0; k < left; k++) {
+        if (components.parent[roots[k]] == roots[k]) {
+          roots[kept++] = roots[k];
+        }
+      }
+      left = kept;
+      this.pool.invoke(new BoruvkaPass(width, height, seed, components.parent, comp, cheapest,
+          false, 0, size));
+    }
+  }
+
+  // returns the weight of the given edge for the given seed
+  static int weight(long seed, int edge) {
+    // the splitmix64 finalizer
+    long z = seed + (edge + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return (int) ((z ^ (z >>> 31)) >>> 32);
+  }
+}
+
+// to represent one parallel step of boruvka's algorithm over a range of nodes:
+// either finding the cheapest edge leaving the component of every node, or
+// relabeling every node with its component and clearing the cheapest edges
+class BoruvkaPass extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  int width;
+  int height;
+  long seed;
+  // the union-find parents, only read during a pass
+  int[] parent;
+  int[] comp;
+  AtomicLongArray cheapest;
+  // whether this pass finds cheapest edges rather than relabeling
+  boolean findCheapest;
+  // the range of nodes
+  int lo;
+  int hi;
+
+  BoruvkaPass(int width, int height, long seed, int[] parent, int[] comp,
+      AtomicLongArray cheapest, boolean findCheapest, int lo, int hi) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.parent = parent;
+    this.comp = comp;
+    this.cheapest = cheapest;
+    this.findCheapest = findCheapest;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  // EFFECT: runs this pass over its range, splitting it in two while it is large
+  protected void compute() {
+    if (this.hi - this.lo > BoruvkaGenerator.THRESHOLD) {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(
+          new BoruvkaPass(this.width, this.height, this.seed, this.parent, this.comp,
+              this.cheapest, this.findCheapest, this.lo, mid),
+          new BoruvkaPass(this.width, this.height, this.seed, this.parent, this.comp,
+              this.cheapest, this.findCheapest, mid, this.hi));
+    }
+    else if (this.findCheapest) {
+      for (int i = this.lo; i < this.hi; i++) {
+        if (i % this.height < this.height - 1) {
+          this.offer(i, i + 1, 2 * i + 1);
+        }
+        if (i < (this.width - 1) * this.height) {
+          this.offer(i, i + this.height, 2 * i);
+        }
+      }
+    }
+    else {
+      for (int i = this.lo; i < this.hi; i++) {
+        // union by rank keeps these paths short; nothing writes them during a pass
+        int root = i;
+        while (this.parent[root] != root) {
+          root = this.parent[root];
+        }
+        this.comp[i] = root;
+        this.cheapest.set(i, Long.MAX_VALUE);
+      }
+    }
+  }
+
+  // EFFECT: offers the given edge between the two given nodes as the cheapest edge
+  // leaving both of their components, if they are different components
+  void offer(int a, int b, int edge) {
+    int ca = this.comp[a];
+    int cb = this.comp[b];
+    if (ca != cb) {
+      long key = PackedEdges.pack(BoruvkaGenerator.weight(this.seed, edge), edge);
+      this.lower(ca, key);
+      this.lower(cb, key);
+    }
+  }
+
+  // EFFECT: lowers the cheapest edge of the given component to the given key
+  void lower(int c, long key) {
+    long current = this.cheapest.get(c);
+    while (key < current && !this.cheapest.compareAndSet(c, current, key)) {
+      current = this.cheapest.get(c);
+    }
+  }
+}
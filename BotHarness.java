@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// to play many games with no window, on every core: every game is dealt from a
+// seed of a fixed pool, so runs play the same games and can be compared, and is
+// played click by click through rotateAndCheck, as a player's clicks are, but
+// with no world to end, until it is won or out of clicks. Run with:
+//   java BotHarness [games [width height]], e.g. java BotHarness 10000 8 8
+class BotHarness {
+  int width;
+  int height;
+  // the seeds of the games are first, first + 1, ... first + games - 1
+  long first;
+  int games;
+  int threads;
+  // how long a run may take, in seconds
+  long timeout = TimeUnit.DAYS.toSeconds(1);
+
+  // plays the given number of width x height games dealt from the seeds from
+  // the given one up, on the given number of threads
+  BotHarness(int width, int height, long first, int games, int threads) {
+    if (width < 2 || height < 2 || width > LightEmAll.VIEW_COLS
+        || height > LightEmAll.VIEW_ROWS) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    if (games < 1 || threads < 1) {
+      throw new IllegalArgumentException("Invalid number of games or threads");
+    }
+    this.width = width;
+    this.height = height;
+    this.first = first;
+    this.games = games;
+    this.threads = threads;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int width = args.length > 2 ? Integer.parseInt(args[1]) : 8;
+    int height = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+    BotHarness harness = new BotHarness(width, height, 0, games,
+        Runtime.getRuntime().availableProcessors());
+    ArrayList<Supplier<IBot>> bots = new ArrayList<Supplier<IBot>>();
+    bots.add(RandomBot::new);
+    bots.add(GreedyBot::new);
+    bots.add(SolverBot::new);
+    System.out.printf("%d games of %d x %d on %d threads%n", games, width, height,
+        harness.threads);
+    System.out.printf("%-8s %10s %14s %12s%n", "bot", "win rate", "budget used", "us/move");
+    for (Supplier<IBot> bot : bots) {
+      BotResult result = harness.run(bot);
+      System.out.printf("%-8s %9.1f%% %13.1f%% %12.2f%n", bot.get().name(),
+          100 * result.winRate(), 100 * result.budgetUsed(), result.nanosPerMove() / 1e3);
+    }
+  }
+
+  // returns the results of every game of the pool, each played by a new bot from
+  // the given supplier; throws IllegalStateException if a game fails or the run
+  // takes longer than the timeout, rather than returning partial totals
+  BotResult run(Supplier<IBot> bots) throws InterruptedException {
+    AtomicInteger next = new AtomicInteger();
+    ArrayList<Callable<BotResult>> tasks = new ArrayList<Callable<BotResult>>();
+    for (int k = 0; k < this.threads; k++) {
+      tasks.add(() -> {
+        BotResult result = new BotResult();
+        // a run that timed out interrupts its games
+        for (int g = next.getAndIncrement(); g < this.games
+            && !Thread.currentThread().isInterrupted(); g = next.getAndIncrement()) {
+          result.add(this.play(bots.get(), this.first + g));
+        }
+        return result;
+      });
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    BotResult total = new BotResult();
+    try {
+      List<Future<BotResult>> results = pool.invokeAll(tasks, this.timeout, TimeUnit.SECONDS);
+      for (Future<BotResult> result : results) {
+        total.add(result.get());
+      }
+    }
+    catch (CancellationException e) {
+      throw new IllegalStateException("Timed out after " + this.timeout + " s", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed", e.getCause());
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    return total;
+  }
+
+  // returns the result of the given bot playing the game dealt from the given seed
+  BotResult play(IBot bot, long seed) {
+    LightEmAll game = new LightEmAll(this.width, this.height, seed);
+    BotResult result = new BotResult();
+    result.games = 1;
+    result.budget = game.clickBudget;
+    while (!game.gameWon() && game.countClicks < game.clickBudget) {
+      long start = System.nanoTime();
+      game.rotateAndCheck(bot.move(game));
+      result.nanos += System.nanoTime() - start;
+      result.moves++;
+    }
+    result.clicks = game.countClicks;
+    result.wins = game.gameWon() ? 1 : 0;
+    return result;
+  }
+}
@@ -0,0 +1,35 @@
+// to represent what a bot did over a number of games: how many it won, the clicks
+// it used and the clicks it was allowed, the moves it made and the time they took
+class BotResult {
+  int games;
+  int wins;
+  long clicks;
+  long budget;
+  long moves;
+  long nanos;
+
+  // EFFECT: adds the given results to these
+  void add(BotResult other) {
+    this.games += other.games;
+    this.wins += other.wins;
+    this.clicks += other.clicks;
+    this.budget += other.budget;
+    this.moves += other.moves;
+    this.nanos += other.nanos;
+  }
+
+  // returns how many of the games were won
+  double winRate() {
+    return this.games == 0 ? 0 : (double) this.wins / this.games;
+  }
+
+  // returns how many of the clicks allowed were used
+  double budgetUsed() {
+    return this.budget == 0 ? 0 : (double) this.clicks / this.budget;
+  }
+
+  // returns the mean time of a move, thinking and clicking, in nanoseconds
+  double nanosPerMove() {
+    return this.moves == 0 ? 0 : (double) this.nanos / this.moves;
+  }
+}
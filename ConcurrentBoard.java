@@ -0,0 +1,143 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+// to represent a board that many players rotate at once, without locks: every
+// tile is one long of an AtomicLongArray holding its packed bits under a version
+// that counts its rotations, and a rotation is a compare-and-set of that one
+// tile. Readers never see the tiles directly; they take immutable snapshots, as
+// Jayanti's single-scanner snapshot does: a snapshot raises a flag, collects
+// every tile once and lowers the flag, and a rotation that sees the flag raised
+// also leaves its cell in moved, so the snapshot takes the newer of the two. A
+// snapshot is the state of the board at the instant its flag is lowered. No
+// rotation ever waits for a snapshot, and a snapshot waits only for the one
+// before it, so a reader stalled halfway stalls no player
+class ConcurrentBoard {
+  // the low bits of a cell are the packed tile, the rest its version
+  static final int VERSION_SHIFT = 8;
+  static final long TILE = (1L << VERSION_SHIFT) - 1;
+
+  int width;
+  int height;
+  AtomicLongArray cells;
+  // the newest cell every tile was left in by a rotation that saw a snapshot
+  // collecting, or 0; a cell with a higher version is always newer
+  AtomicLongArray moved;
+  // whether a snapshot is collecting
+  volatile boolean collecting;
+  // the newest snapshot taken so far
+  AtomicReference<BoardSnapshot> latest;
+
+  // makes a shared board of the tiles of the given board, with their station
+  ConcurrentBoard(PackedBoard board) {
+    this.width = board.width;
+    this.height = board.height;
+    this.cells = new AtomicLongArray(board.tiles.length);
+    this.moved = new AtomicLongArray(board.tiles.length);
+    for (int i = 0; i < board.tiles.length; i++) {
+      this.cells.set(i, board.tiles[i] & (PackedBoard.WIRES | PackedBoard.STATION));
+    }
+    this.latest = new AtomicReference<BoardSnapshot>(this.snapshot());
+  }
+
+  // EFFECT: rotates the tile at the given index clockwise, atomically; returns
+  // the tile's new version, i.e. how many times it has been rotated
+  long rotate(int i) {
+    while (true) {
+      long cell = this.cells.get(i);
+      int bits = (int) (cell & TILE);
+      long version = (cell >>> VERSION_SHIFT) + 1;
+      long rotated = version << VERSION_SHIFT
+          | (bits & ~PackedBoard.WIRES) | PackedBoard.rotateWires(bits & PackedBoard.WIRES);
+      if (this.cells.compareAndSet(i, cell, rotated)) {
+        // a snapshot collecting now may have read the tile before this rotation
+        if (this.collecting) {
+          this.moved.accumulateAndGet(i, rotated, Math::max);
+        }
+        return version;
+      }
+    }
+  }
+
+  // returns a snapshot of the board as it was at one instant during this call,
+  // publishing it as the latest unless a newer one was published meanwhile
+  synchronized BoardSnapshot snapshot() {
+    int size = this.cells.length();
+    for (int i = 0; i < size; i++) {
+      this.moved.set(i, 0);
+    }
+    long[] cells = new long[size];
+    this.collecting = true;
+    this.collect(cells);
+    this.collecting = false;
+    for (int i = 0; i < size; i++) {
+      cells[i] = Math.max(cells[i], this.moved.get(i));
+    }
+    BoardSnapshot snapshot = new BoardSnapshot(this.width, this.height, cells);
+    if (this.latest != null) {
+      this.latest.accumulateAndGet(snapshot,
+          (old, next) -> next.rotations > old.rotations ? next : old);
+    }
+    return snapshot;
+  }
+
+  // EFFECT: reads every cell into the given array
+  void collect(long[] into) {
+    for (int i = 0; i < into.length; i++) {
+      into[i] = this.cells.get(i);
+    }
+  }
+}
+
+// measures how many rotations per second a ConcurrentBoard takes from a growing
+// number of player threads, while one reader keeps taking snapshots. Run with:
+//   java ConcurrentBoardBenchmark [threads ...], e.g. java ConcurrentBoardBenchmark 1 2 4 8
+class ConcurrentBoardBenchmark {
+  static final int SIDE = 1000;
+  static final long NANOS = 2000000000L;
+
+  public static void main(String[] args) throws InterruptedException {
+    int[] counts = {1, 2, 4, 8};
+    if (args.length > 0) {
+      counts = new int[args.length];
+      for (int k = 0; k < args.length; k++) {
+        counts[k] = Integer.parseInt(args[k]);
+      }
+    }
+    System.out.printf("%8s %16s %12s%n", "threads", "rotations/s", "snapshots");
+    for (int count : counts) {
+      ConcurrentBoard board = new ConcurrentBoard(new HeadlessLightEmAll(SIDE, SIDE, 1L).board);
+      long[] done = new long[count];
+      long end = System.nanoTime() + NANOS;
+      ExecutorService players = PortfolioSolver.perTaskExecutor();
+      for (int k = 0; k < count; k++) {
+        int which = k;
+        players.execute(() -> {
+          SplittableRandom rand = new SplittableRandom(which);
+          long rotations = 0;
+          while (System.nanoTime() < end) {
+            for (int m = 0; m < 1000; m++) {
+              board.rotate(rand.nextInt(SIDE * SIDE));
+            }
+            rotations += 1000;
+          }
+          done[which] = rotations;
+        });
+      }
+      int snapshots = 0;
+      while (System.nanoTime() < end) {
+        board.snapshot();
+        snapshots++;
+      }
+      players.shutdown();
+      players.awaitTermination(1, TimeUnit.MINUTES);
+      long total = 0;
+      for (long d : done) {
+        total += d;
+      }
+      System.out.printf("%8d %16.0f %12d%n", count, total / (NANOS / 1e9), snapshots);
+    }
+  }
+}
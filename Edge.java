@@ -0,0 +1,26 @@
+// represents an edge 
+class Edge {
+  GamePiece fromNode;
+  GamePiece toNode;
+  int weight;
+
+  // makes an unweighted edge, i.e. one of weight 0
+  public Edge(GamePiece fromNode, GamePiece toNode) {
+    this(fromNode, toNode, 0);
+  }
+
+  public Edge(GamePiece fromNode, GamePiece toNode, int weight) {
+    this.fromNode = fromNode;
+    this.toNode = toNode;
+    this.weight = weight;
+  }
+
+  Edge smaller(Edge e) {
+    if (this.weight <= e.weight) {
+      return this;
+    }
+    else {
+      return e;
+    }
+  }
+}
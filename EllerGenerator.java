@@ -0,0 +1,66 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// to generate the tree with eller's algorithm, one column at a time, keeping only
+// one column of state; edges are passed on as soon as they are chosen, so the
+// tree of an arbitrarily wide board can be streamed straight to storage
+class EllerGenerator implements IMazeGenerator {
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    // the set of every node of the current column, named by one of its rows;
+    // every node starts out in a set of its own
+    int[] set = new int[height];
+    for (int r = 0; r < height; r++) {
+      set[r] = r;
+    }
+    UnionFind sets = new UnionFind(height);
+    boolean[] carried = new boolean[height];
+    boolean[] setCarried = new boolean[height];
+    int[] lastRow = new int[height];
+    int[] name = new int[height];
+    for (int c = 0; c < width; c++) {
+      boolean lastColumn = c == width - 1;
+      // starts from the sets the previous column carried into this one
+      System.arraycopy(set, 0, sets.parent, 0, height);
+      Arrays.fill(sets.rank, 0);
+      // randomly joins vertically adjacent nodes of different sets,
+      // joining all of them in the last column
+      for (int r = 0; r < height - 1; r++) {
+        if (sets.find(r) != sets.find(r + 1) && (lastColumn || rand.nextBoolean())) {
+          sets.union(r, r + 1);
+          sink.accept(2 * (c * height + r) + 1);
+        }
+      }
+      if (lastColumn) {
+        return;
+      }
+      // randomly carries nodes into the next column, at least one per set
+      Arrays.fill(setCarried, false);
+      for (int r = 0; r < height; r++) {
+        int root = sets.find(r);
+        carried[r] = rand.nextBoolean();
+        setCarried[root] |= carried[r];
+        lastRow[root] = r;
+      }
+      for (int r = 0; r < height; r++) {
+        if (sets.find(r) == r && !setCarried[r]) {
+          carried[lastRow[r]] = true;
+        }
+      }
+      // names every carried set by its first carried row; the rest start new sets
+      Arrays.fill(name, -1);
+      for (int r = 0; r < height; r++) {
+        if (carried[r]) {
+          sink.accept(2 * (c * height + r));
+          int root = sets.find(r);
+          if (name[root] == -1) {
+            name[root] = r;
+          }
+          set[r] = name[root];
+        }
+        else {
+          set[r] = r;
+        }
+      }
+    }
+  }
+}
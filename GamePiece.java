@@ -0,0 +1,239 @@
+import java.awt.Color;
+import java.util.Arrays;
+import javalib.worldimages.*;
+
+/// represents a tile on the board 
+class GamePiece {
+  int col;
+  int row;
+  // the packed board this GamePiece is a view of, and the index of its tile
+  // there: the tile's bits are whether this GamePiece is connected to the
+  // adjacent left, right, top, or bottom pieces, whether the power station is
+  // on it and whether it is powered
+  PackedBoard store;
+  int index;
+
+  GamePiece(int col, int row, boolean left, boolean right, boolean top, boolean bottom, 
+      boolean powerStation, boolean powered) {
+    this(col, row, new PackedBoard(1, 1), 0);
+    this.setLeft(left);
+    this.setRight(right);
+    this.setTop(top);
+    this.setBottom(bottom);
+    this.setPowerStation(powerStation);
+    this.setPowered(powered);
+  }
+
+  // makes the GamePiece at the given column and row that is a view of the tile
+  // at the given index of the given packed board
+  GamePiece(int col, int row, PackedBoard store, int index) {
+    this.col = col;
+    this.row = row;
+    this.store = store;
+    this.index = index;
+  }
+
+  // returns whether this GamePiece is connected to the adjacent left, right,
+  // top, or bottom piece, has the power station, or is powered
+  boolean left() {
+    return this.store.has(this.index, PackedBoard.LEFT);
+  }
+
+  boolean right() {
+    return this.store.has(this.index, PackedBoard.RIGHT);
+  }
+
+  boolean top() {
+    return this.store.has(this.index, PackedBoard.TOP);
+  }
+
+  boolean bottom() {
+    return this.store.has(this.index, PackedBoard.BOTTOM);
+  }
+
+  boolean powerStation() {
+    return this.store.has(this.index, PackedBoard.STATION);
+  }
+
+  boolean powered() {
+    return this.store.has(this.index, PackedBoard.POWERED);
+  }
+
+  // EFFECT: sets whether this GamePiece is connected to the adjacent left, right,
+  // top, or bottom piece, has the power station, or is powered
+  void setLeft(boolean on) {
+    this.store.set(this.index, PackedBoard.LEFT, on);
+  }
+
+  void setRight(boolean on) {
+    this.store.set(this.index, PackedBoard.RIGHT, on);
+  }
+
+  void setTop(boolean on) {
+    this.store.set(this.index, PackedBoard.TOP, on);
+  }
+
+  void setBottom(boolean on) {
+    this.store.set(this.index, PackedBoard.BOTTOM, on);
+  }
+
+  void setPowerStation(boolean on) {
+    this.store.set(this.index, PackedBoard.STATION, on);
+  }
+
+  void setPowered(boolean on) {
+    this.store.set(this.index, PackedBoard.POWERED, on);
+  }
+
+  // EFFECT: makes this GamePiece a view of the tile at the given index of the
+  // given packed board, carrying its bits over
+  void moveTo(PackedBoard store, int index) {
+    store.tiles[index] = this.store.tiles[this.index];
+    this.store = store;
+    this.index = index;
+  }
+
+  // Generate an image of this, the given GamePiece.
+  WorldImage tileImage(int size, int wireWidth, Color wireColor, boolean hasPowerStation) {
+    WorldImage image = new OverlayImage(
+        new RectangleImage(wireWidth, wireWidth, OutlineMode.SOLID, wireColor),
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.DARK_GRAY));
+    WorldImage vWire = new RectangleImage(wireWidth, (size + 1) / 2, OutlineMode.SOLID, wireColor);
+    WorldImage hWire = new RectangleImage((size + 1) / 2, wireWidth, OutlineMode.SOLID, wireColor);
+
+    if (this.top()) {
+      image = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP, vWire, 0, 0, image);
+    } 
+    if (this.right()) {
+      image = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.MIDDLE, hWire, 0, 0, image);
+    }
+    if (this.bottom()) {
+      image = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.BOTTOM, vWire, 0, 0, image);
+    }
+    if (this.left()) {
+      image = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE, hWire, 0, 0, image);
+    }
+    if (hasPowerStation) {
+      image = new OverlayImage(
+          new OverlayImage(
+              new StarImage(size / 3, 7, OutlineMode.OUTLINE, new Color(255, 128, 0)),
+              new StarImage(size / 3, 7, OutlineMode.SOLID, new Color(0, 255, 255))),
+          image);
+    }
+    image = new OverlayImage(new RectangleImage(size, size, OutlineMode.OUTLINE, 
+        Color.BLACK), image);
+    return image;
+  }
+
+  // returns the pixels of the image of this GamePiece, row by row: the same tile
+  // tileImage draws, painted one pixel at a time
+  Color[] tilePixels(int size, int wireWidth, Color wireColor, boolean hasPowerStation) {
+    Color[] pixels = new Color[size * size];
+    Arrays.fill(pixels, Color.DARK_GRAY);
+    int across = (size - wireWidth) / 2;
+    int half = (size + 1) / 2;
+    this.fill(pixels, size, across, across, wireWidth, wireWidth, wireColor);
+    if (this.top()) {
+      this.fill(pixels, size, across, 0, wireWidth, half, wireColor);
+    }
+    if (this.right()) {
+      this.fill(pixels, size, size - half, across, half, wireWidth, wireColor);
+    }
+    if (this.bottom()) {
+      this.fill(pixels, size, across, size - half, wireWidth, half, wireColor);
+    }
+    if (this.left()) {
+      this.fill(pixels, size, 0, across, half, wireWidth, wireColor);
+    }
+    if (hasPowerStation) {
+      // the star is filled, and outlined where a pixel next to it is outside it
+      double radius = size / 3;
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          if (inStar(x - size / 2.0, y - size / 2.0, radius)) {
+            boolean edge = !inStar(x - 1 - size / 2.0, y - size / 2.0, radius)
+                || !inStar(x + 1 - size / 2.0, y - size / 2.0, radius)
+                || !inStar(x - size / 2.0, y - 1 - size / 2.0, radius)
+                || !inStar(x - size / 2.0, y + 1 - size / 2.0, radius);
+            pixels[y * size + x] = edge ? new Color(255, 128, 0) : new Color(0, 255, 255);
+          }
+        }
+      }
+    }
+    for (int k = 0; k < size; k++) {
+      pixels[k] = Color.BLACK;
+      pixels[(size - 1) * size + k] = Color.BLACK;
+      pixels[k * size] = Color.BLACK;
+      pixels[k * size + size - 1] = Color.BLACK;
+    }
+    return pixels;
+  }
+
+  // EFFECT: paints the given rectangle of the given size x size pixels the given color
+  void fill(Color[] pixels, int size, int x, int y, int width, int height, Color color) {
+    for (int r = y; r < y + height; r++) {
+      Arrays.fill(pixels, r * size + x, r * size + x + width, color);
+    }
+  }
+
+  // returns true if the center of the pixel at the given offset from the middle of
+  // a tile is inside a seven pointed star of the given radius, pointing up, whose
+  // inner corners are half as far out
+  static boolean inStar(double x, double y, double radius) {
+    double px = x + 0.5;
+    double py = y + 0.5;
+    boolean inside = false;
+    for (int k = 0; k < 14; k++) {
+      double r1 = k % 2 == 0 ? radius : radius / 2;
+      double r2 = k % 2 == 0 ? radius / 2 : radius;
+      double a1 = Math.PI * k / 7 - Math.PI / 2;
+      double a2 = Math.PI * (k + 1) / 7 - Math.PI / 2;
+      double x1 = r1 * Math.cos(a1);
+      double y1 = r1 * Math.sin(a1);
+      double x2 = r2 * Math.cos(a2);
+      double y2 = r2 * Math.sin(a2);
+      if ((y1 > py) != (y2 > py) && px < x1 + (py - y1) * (x2 - x1) / (y2 - y1)) {
+        inside = !inside;
+      }
+    }
+    return inside;
+  }
+
+  // returns this GamePiece's flags packed into the bits used by PackedBoard
+  int pack() {
+    return this.store.tiles[this.index];
+  }
+
+  // EFFECT: sets this GamePiece's flags from the given PackedBoard bits
+  void unpack(int bits) {
+    this.store.tiles[this.index] = (byte) bits;
+  }
+
+  // EFFECT: rotates this GamePiece clockwise
+  void rotate() {
+    this.store.rotate(this.index);
+  }
+
+  // checks if this GamePiece and the given GamePiece are connected 
+  boolean connected(GamePiece gp) {
+    // top neighbor
+    if ((gp.row == this.row - 1) && gp.col == this.col) {
+      return (gp.bottom() && this.top());
+    }
+    // bottom neighbor
+    if ((gp.row == this.row + 1) && gp.col == this.col) {
+      return (gp.top() && this.bottom());
+    }
+    // left neighbor
+    if ((gp.row == this.row) && gp.col == this.col - 1) {
+      return (gp.right() && this.left());
+    }
+    // right neighbor
+    if ((gp.row == this.row) && gp.col == this.col + 1) {
+      return (gp.left() && this.right());
+    }
+    else {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,208 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// to host many LightEmAll games in one JVM, with no window: every connection to
+// the local socket is a session that plays one game at a time, on a thread of its
+// own, a virtual thread where the runtime has them. Sessions speak a line protocol,
+// one reply line per command line:
+//   NEW width height [seed]   deals a game; replies OK seed
+//   CLICK x y                 clicks the tile at the given pixel of the view
+//   ROTATE col row            clicks the tile at the given column and row, in
+//                             view or not
+//   KEY key                   moves the station with up, down, left or right,
+//                             undoes with u and redoes with y, or scrolls and
+//                             zooms the view with w, a, s, d, = or -
+//   STATE                     replies OK width height clicks budget powered state
+//                             col row tiles, the tiles as one hex digit of
+//                             connector bits each
+//   QUIT                      ends the session
+// CLICK, ROTATE and KEY reply OK clicks budget powered state, the state PLAYING,
+// WON, or LOST once a click went past the budget. Every click is a move, undone,
+// journaled and counted like a click in the window. A bad command, a click off
+// the tiles in view or a line longer than MAX_LINE replies ERR and a reason.
+// Run with: java GameServer [port]
+class GameServer {
+  // the largest board a session may deal
+  static final int MAX_SIDE = 100;
+
+  ServerSocket socket;
+  ExecutorService sessions;
+  Thread acceptor;
+  // how many sessions are open, and their connections
+  AtomicInteger open = new AtomicInteger();
+  Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+  // listens on the given local port, or on any free one if it is 0
+  GameServer(int port) {
+    try {
+      this.socket = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.sessions = PortfolioSolver.perTaskExecutor();
+  }
+
+  public static void main(String[] args) {
+    GameServer server = new GameServer(args.length > 0 ? Integer.parseInt(args[0]) : 7070);
+    server.start();
+    System.out.println("Serving games on port " + server.port());
+  }
+
+  // returns the port the server listens on
+  int port() {
+    return this.socket.getLocalPort();
+  }
+
+  // EFFECT: starts accepting connections, each as a new session
+  void start() {
+    this.acceptor = new Thread(() -> {
+      while (!this.socket.isClosed()) {
+        try {
+          Socket client = this.socket.accept();
+          client.setTcpNoDelay(true);
+          this.clients.add(client);
+          // a connection accepted as the server closes is closed at once
+          if (this.socket.isClosed() || !this.serve(client)) {
+            this.clients.remove(client);
+            client.close();
+          }
+        }
+        catch (IOException e) {
+          // the server socket was closed
+        }
+      }
+    }, "game-server-acceptor");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  // EFFECT: starts a session on the given connection; returns false if the
+  // server closed before the session could start
+  boolean serve(Socket client) {
+    try {
+      this.sessions.execute(() -> {
+        try {
+          new GameSession().serve(client, this.open);
+        }
+        finally {
+          this.clients.remove(client);
+        }
+      });
+      return true;
+    }
+    catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  // EFFECT: stops accepting connections and ends every session, closing its
+  // connection
+  void close() {
+    try {
+      this.socket.close();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    for (Socket client : this.clients) {
+      try {
+        client.close();
+      }
+      catch (IOException e) {
+        // the connection is gone either way
+      }
+    }
+    this.sessions.shutdownNow();
+  }
+}
+
+// to drive a GameServer with many concurrent sessions, each playing random clicks
+// as fast as it can, and report the moves per second and the latency of a move
+// at every session count, with the heap a session holds, on both ends of its
+// connection. Run with:
+//   java GameLoadTest [sessions ...], e.g. java GameLoadTest 1 10 100 1000
+class GameLoadTest {
+  static final int MOVES = 2000;
+  static final int SIDE = 8;
+
+  public static void main(String[] args) throws Exception {
+    ArrayList<Integer> counts = new ArrayList<Integer>();
+    for (String arg : args) {
+      counts.add(Integer.parseInt(arg));
+    }
+    if (counts.isEmpty()) {
+      counts.addAll(Arrays.asList(1, 10, 100, 1000));
+    }
+    System.out.printf("%8s %12s %10s %10s %14s%n", "sessions", "moves/s", "p50 us", "p99 us",
+        "bytes/session");
+    for (int count : counts) {
+      GameServer server = new GameServer(0);
+      server.start();
+      long before = Benchmarks.usedMemory();
+      ArrayList<Socket> clients = new ArrayList<Socket>();
+      ArrayList<InputStream> ins = new ArrayList<InputStream>();
+      ArrayList<OutputStream> outs = new ArrayList<OutputStream>();
+      for (int k = 0; k < count; k++) {
+        Socket client = new Socket(InetAddress.getLoopbackAddress(), server.port());
+        client.setTcpNoDelay(true);
+        clients.add(client);
+        ins.add(new BufferedInputStream(client.getInputStream(), GameSession.BUFFER));
+        outs.add(client.getOutputStream());
+        GameSession.writeLine(outs.get(k), "NEW " + SIDE + " " + SIDE + " " + k);
+        GameSession.readLine(ins.get(k));
+      }
+      long perSession = (Benchmarks.usedMemory() - before) / count;
+      long[] latencies = new long[count * MOVES];
+      ExecutorService players = PortfolioSolver.perTaskExecutor();
+      long start = System.nanoTime();
+      for (int k = 0; k < count; k++) {
+        int which = k;
+        players.execute(() -> play(ins.get(which), outs.get(which), which, latencies));
+      }
+      players.shutdown();
+      players.awaitTermination(1, java.util.concurrent.TimeUnit.HOURS);
+      long elapsed = System.nanoTime() - start;
+      Arrays.sort(latencies);
+      System.out.printf("%8d %12.0f %10.1f %10.1f %14d%n", count,
+          latencies.length / (elapsed / 1e9), latencies[latencies.length / 2] / 1e3,
+          latencies[(int) (latencies.length * 0.99)] / 1e3, perSession);
+      for (Socket client : clients) {
+        client.close();
+      }
+      server.close();
+    }
+  }
+
+  // EFFECT: plays MOVES random clicks over the given connection, recording the
+  // round trip of every one into the given session's part of the latencies
+  static void play(InputStream in, OutputStream out, int session, long[] latencies) {
+    SplittableRandom rand = new SplittableRandom(session);
+    try {
+      for (int m = 0; m < MOVES; m++) {
+        long sent = System.nanoTime();
+        GameSession.writeLine(out, "CLICK " + rand.nextInt(SIDE * 60) + " "
+            + rand.nextInt(SIDE * 60));
+        GameSession.readLine(in);
+        latencies[session * MOVES + m] = System.nanoTime() - sent;
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javalib.worldimages.Posn;
+
+// to represent one session of the server: the game it plays and how it answers
+// commands. It plays through the methods of LightEmAll that never end the world,
+// so no session ever builds a scene
+class GameSession {
+  // the keys a session may send; the others open windows or touch files
+  static final List<String> KEYS = Arrays.asList("up", "down", "left", "right", "u", "y",
+      "w", "a", "s", "d", "=", "-");
+  // the bytes read from a connection at once; commands are short, and the
+  // buffers of thousands of sessions add up
+  static final int BUFFER = 256;
+  // the longest command line a session reads
+  static final int MAX_LINE = 128;
+
+  // the game being played, or null before the first NEW
+  LightEmAll game;
+
+  // EFFECT: answers every command line from the given connection until it
+  // quits or closes, counting itself among the given open sessions meanwhile
+  void serve(Socket client, AtomicInteger open) {
+    open.incrementAndGet();
+    try (Socket s = client) {
+      InputStream in = new BufferedInputStream(s.getInputStream(), BUFFER);
+      OutputStream out = s.getOutputStream();
+      String line = readLine(in, MAX_LINE);
+      while (line != null) {
+        String reply = line.length() > MAX_LINE ? "ERR Line too long" : this.handle(line);
+        if (reply == null) {
+          break;
+        }
+        writeLine(out, reply);
+        line = readLine(in, MAX_LINE);
+      }
+    }
+    catch (IOException e) {
+      // the client went away; its game goes with it
+    }
+    finally {
+      open.decrementAndGet();
+    }
+  }
+
+  // EFFECT: reads the next line from the given stream; returns it without its
+  // line break, or null at the end of the stream
+  static String readLine(InputStream in) throws IOException {
+    return readLine(in, Integer.MAX_VALUE);
+  }
+
+  // EFFECT: reads the next line from the given stream, keeping no more than one
+  // character past the given limit and skipping the rest; returns it without its
+  // line break, or null at the end of the stream
+  static String readLine(InputStream in, int limit) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int b = in.read();
+    if (b < 0) {
+      return null;
+    }
+    while (b >= 0 && b != '\n') {
+      if (b != '\r' && line.length() <= limit) {
+        line.append((char) b);
+      }
+      b = in.read();
+    }
+    return line.toString();
+  }
+
+  // EFFECT: writes the given line and a line break to the given stream at once
+  static void writeLine(OutputStream out, String line) throws IOException {
+    out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+
+  // EFFECT: carries out the given command line; returns the reply, or null
+  // if the session is over
+  String handle(String line) {
+    String[] words = line.trim().split("\\s+");
+    String command = words[0].toUpperCase();
+    try {
+      if (command.equals("QUIT")) {
+        return null;
+      }
+      if (command.equals("NEW")) {
+        if (words.length != 3 && words.length != 4) {
+          return "ERR Bad arguments";
+        }
+        int width = Integer.parseInt(words[1]);
+        int height = Integer.parseInt(words[2]);
+        if (width < 2 || height < 2 || width > GameServer.MAX_SIDE
+            || height > GameServer.MAX_SIDE) {
+          return "ERR Invalid height or width";
+        }
+        long seed = words.length > 3 ? Long.parseLong(words[3])
+            : new SplittableRandom().nextLong();
+        this.game = new LightEmAll(width, height, seed);
+        return "OK " + seed;
+      }
+      if (this.game == null) {
+        return "ERR No game";
+      }
+      if (command.equals("CLICK")) {
+        if (words.length != 3) {
+          return "ERR Bad arguments";
+        }
+        int i = this.game.tileAt(new Posn(Integer.parseInt(words[1]),
+            Integer.parseInt(words[2])));
+        if (i < 0) {
+          return "ERR No tile in view there";
+        }
+        this.game.rotateAndCheck(i);
+      }
+      else if (command.equals("ROTATE")) {
+        if (words.length != 3) {
+          return "ERR Bad arguments";
+        }
+        int col = Integer.parseInt(words[1]);
+        int row = Integer.parseInt(words[2]);
+        if (col < 0 || row < 0 || col >= this.game.width || row >= this.game.height) {
+          return "ERR No such tile";
+        }
+        this.game.rotateAndCheck(col * this.game.height + row);
+      }
+      else if (command.equals("KEY")) {
+        if (words.length != 2) {
+          return "ERR Bad arguments";
+        }
+        if (!KEYS.contains(words[1])) {
+          return "ERR Unsupported key";
+        }
+        this.game.press(words[1]);
+      }
+      else if (command.equals("STATE")) {
+        return "OK " + this.game.width + " " + this.game.height + " " + this.status() + " "
+            + this.game.powerCol + " " + this.game.powerRow + " " + this.tiles();
+      }
+      else {
+        return "ERR Unknown command";
+      }
+      return "OK " + this.status();
+    }
+    catch (NumberFormatException e) {
+      return "ERR Bad arguments";
+    }
+  }
+
+  // returns the click count, the click budget, the powered count and whether the
+  // game is PLAYING, WON or LOST
+  String status() {
+    String outcome = this.game.outcome();
+    String state = outcome == null ? "PLAYING" : this.game.gameWon() ? "WON" : "LOST";
+    return this.game.countClicks + " " + this.game.clickBudget + " " + this.game.poweredCount
+        + " " + state;
+  }
+
+  // returns the connector bits of every tile, a hex digit each, in node order
+  String tiles() {
+    StringBuilder tiles = new StringBuilder(this.game.nodes.size());
+    for (GamePiece g : this.game.nodes) {
+      tiles.append(Character.forDigit(g.pack() & PackedBoard.WIRES, 16));
+    }
+    return tiles.toString();
+  }
+}
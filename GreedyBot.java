@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+
+// to represent a bot that clicks the tile that powers the most tiles: it tries
+// one click of every tile that is powered or next to a powered one, and takes the
+// best; when no click powers more, it clicks an unpowered one at random
+class GreedyBot implements IBot {
+  public String name() {
+    return "greedy";
+  }
+
+  public int move(LightEmAll game) {
+    ArrayList<GamePiece> candidates = new ArrayList<GamePiece>();
+    ArrayList<GamePiece> frontier = new ArrayList<GamePiece>();
+    for (GamePiece g : game.nodes) {
+      if (g.powered()) {
+        candidates.add(g);
+      }
+      else if (this.nextToPower(game, g)) {
+        candidates.add(g);
+        frontier.add(g);
+      }
+    }
+    int best = game.poweredCount;
+    GamePiece choice = frontier.isEmpty() ? candidates.get(game.rand.nextInt(candidates.size()))
+        : frontier.get(game.rand.nextInt(frontier.size()));
+    for (GamePiece g : candidates) {
+      // a move is one click, so only the first turn is scored, and the full turn
+      // leaves the tile as it was
+      for (int k = 1; k <= 4; k++) {
+        game.rotate(g);
+        game.updatePower(g);
+        if (k == 1 && game.poweredCount > best) {
+          best = game.poweredCount;
+          choice = g;
+        }
+      }
+    }
+    return game.index(choice);
+  }
+
+  // returns true if the given tile has a powered neighbor
+  boolean nextToPower(LightEmAll game, GamePiece g) {
+    return g.col > 0 && game.board.get(g.col - 1).get(g.row).powered()
+        || g.col < game.width - 1 && game.board.get(g.col + 1).get(g.row).powered()
+        || g.row > 0 && game.board.get(g.col).get(g.row - 1).powered()
+        || g.row < game.height - 1 && game.board.get(g.col).get(g.row + 1).powered();
+  }
+}
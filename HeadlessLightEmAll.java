@@ -0,0 +1,143 @@
+import java.util.random.RandomGenerator;
+
+// to represent a LightEmAll game without a World or any GamePieces, so boards
+// of millions of tiles can be generated, shuffled and powered.
+// Given the same Random it builds exactly the board that
+// new LightEmAll(new Utils().makeBoard(width, height), rand) builds, and given
+// the same seed the board new LightEmAll(width, height, seed) builds, using the
+// same kruskal and shuffle rules on a PackedBoard, the wiring rule of
+// PackedBoard.wiring and the power of a PowerTree, which LightEmAll shares.
+// Budgets, measured with Benchmarks on one core with JDK 17:
+//  - retained: 17 bytes per tile (the packed tile, its packed mst edge, and the
+//    power tree's parent and work list)
+//  - peak while generating: about 53 bytes per tile, counted from the array sizes
+//    (the packed edges, the radix sort buffer and the union-find),
+//    i.e. about 210 MB for 2000 x 2000
+//  - 1000 x 1000: under 0.4 s to generate, shuffle and power
+//  - 2000 x 2000: about 2 to 2.5 s to generate, shuffle and power
+//  - bfs on a freshly shuffled board: under 5 ms at 2000 x 2000, since it only walks
+//    the powered tiles after one linear pass clearing the powered bits
+class HeadlessLightEmAll {
+  // the tiles of the board
+  PackedBoard board;
+  // the edges of the minimum spanning tree, as packed by PackedEdges
+  long[] mst;
+  // the width and height of the board
+  int width;
+  int height;
+  // the current location of the power station
+  int powerRow;
+  int powerCol;
+  RandomGenerator rand;
+  int countClicks;
+  // how many tiles are powered
+  int poweredCount;
+  // which tiles are powered and where their power comes from
+  PowerTree power;
+
+  // generates a shuffled and powered width x height game with the given
+  // random generator
+  HeadlessLightEmAll(int width, int height, RandomGenerator rand) {
+    this(width, height, rand, new KruskalGenerator());
+  }
+
+  // generates a shuffled and powered width x height game with the given random
+  // generator, wired along a spanning tree built by the given generator
+  HeadlessLightEmAll(int width, int height, RandomGenerator rand, IMazeGenerator generator) {
+    this(width, height, rand, rand, generator);
+  }
+
+  // generates the shuffled and powered width x height game dealt from the given
+  // seed, split like LightEmAll's
+  HeadlessLightEmAll(int width, int height, long seed) {
+    this(width, height, new KruskalGenerator(), seed);
+  }
+
+  // generates the shuffled and powered width x height game dealt from the given
+  // seed, wired along a spanning tree built by the given generator
+  HeadlessLightEmAll(int width, int height, IMazeGenerator generator, long seed) {
+    this(width, height, LightEmAll.stream(seed, 0), LightEmAll.stream(seed, 1), generator);
+  }
+
+  // generates a shuffled and powered width x height game, drawing the tree from
+  // the first random generator and the shuffle from the second
+  HeadlessLightEmAll(int width, int height, RandomGenerator rand, RandomGenerator shuffle,
+      IMazeGenerator generator) {
+    if (width < 2 || height < 2) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    this.width = width;
+    this.height = height;
+    this.rand = rand;
+    this.board = new PackedBoard(width, height);
+    this.power = new PowerTree(this.board, null);
+    this.mst = this.spanningTree(generator);
+    this.powerRow = 0;
+    this.powerCol = 0;
+    this.board.set(0, PackedBoard.STATION, true);
+    this.boardComplete(this.mst);
+    this.shuffle(shuffle);
+    this.bfs();
+    this.countClicks = 0;
+  }
+
+  // returns the edges of a spanning tree of the board built by the given generator,
+  // packed with the order in which the generator picked them as their weight
+  long[] spanningTree(IMazeGenerator generator) {
+    long[] tree = new long[this.width * this.height - 1];
+    int[] count = new int[1];
+    generator.generate(this.width, this.height, this.rand, e -> {
+      tree[count[0]] = PackedEdges.pack(count[0], e);
+      count[0]++;
+    });
+    return tree;
+  }
+
+  // EFFECT: draws the tile configurations, wiring the tiles of every edge the
+  // same way Utils.boardComplete wires GamePieces
+  void boardComplete(long[] edges) {
+    for (long packed : edges) {
+      int e = PackedEdges.edge(packed);
+      this.wire(PackedEdges.from(e), PackedEdges.to(e, this.height));
+    }
+  }
+
+  // EFFECT: wires the two given tiles to each other like Utils.boardComplete
+  void wire(int from, int to) {
+    int wiring = PackedBoard.wiring(this.board.col(from), this.board.row(from),
+        this.board.col(to), this.board.row(to));
+    this.board.tiles[from] |= wiring & PackedBoard.WIRES;
+    this.board.tiles[to] |= wiring >> 4;
+  }
+
+  // EFFECT: shuffles the tiles, drawing from the given random generator like
+  // LightEmAll.shuffle
+  void shuffle(RandomGenerator r) {
+    for (int g = 0; g < this.board.tiles.length; g++) {
+      for (int i = 0; i < r.nextInt(4); i++) {
+        this.board.rotate(g);
+      }
+    }
+  }
+
+  // EFFECT: powers tiles which are connected to the power station
+  void bfs() {
+    this.power.bfs(this.board.index(this.powerCol, this.powerRow));
+    this.poweredCount = this.power.count;
+  }
+
+  // returns true if all tiles are powered
+  boolean gameWon() {
+    return this.poweredCount == this.board.tiles.length;
+  }
+
+  // EFFECT: rotates the tile at the given column and row, updates the power of
+  // only the tiles that lost or gained it, and counts the click
+  void click(int col, int row) {
+    int i = this.board.index(col, row);
+    this.board.rotate(i);
+    this.power.update(i, this.board.index(this.powerCol, this.powerRow));
+    this.poweredCount = this.power.count;
+    this.countClicks++;
+  }
+}
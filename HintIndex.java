@@ -0,0 +1,244 @@
+import java.util.Arrays;
+
+// to keep track of the tiles that are not yet turned to their solution, so the
+// game can point at the one nearest the power station at once. The wires of the
+// solution form a tree, searched breadth first from the station the index is
+// made with. The tiles are laid out in the depth-first order of that tree, so the
+// tiles under any tile take a run of places, and a segment tree over the places
+// keeps every tile's distance from the station along the tree, and the least
+// distance of an unsolved tile in every run. Moving the station one step along
+// the tree brings the tiles on the far side of that step one nearer and all the
+// others one further: an addition to every place and one to a run. So a
+// rotation, a hint and a station move each walk the height of the segment tree,
+// 23 nodes on a 2000 x 2000 board, whatever the station moved from; a move
+// between tiles that are not next to each other in the tree walks the tree path
+// between them. A tile is solved when its wires are the solution's, so a
+// straight that is upside down is as solved as one that is not
+class HintIndex {
+  // the least distance of a run with no unsolved tile
+  static final int NONE = Integer.MAX_VALUE;
+
+  // the solution, as wires by node index
+  int[] solution;
+  // the place of every tile in depth-first order, by node index, and the tile at
+  // every place
+  int[] place;
+  int[] order;
+  // the tile every tile hangs from in the tree, by node index, or -1 for the
+  // station the index was made with and for tiles the solution does not reach
+  int[] parent;
+  // how many places the tiles under every tile take, itself included, by node index
+  int[] size;
+  // how many tiles the solution reaches from the station; they take the first places
+  int reached;
+  // the segment tree, with the leaf of place p at leaves + p. add is what was added
+  // to every place of a node's run, which at a leaf starts as its distance; least
+  // is the least distance of an unsolved tile of a node's run, leaving out what
+  // the nodes above it added, or NONE
+  int leaves;
+  int[] add;
+  int[] least;
+  // the station, by node index
+  int station;
+  // how many tiles are unsolved
+  int count;
+
+  // indexes the tiles of the given board, whose station is the root, against the
+  // given solution, as wires by node index
+  HintIndex(PackedBoard board, int[] solution) {
+    int size = board.tiles.length;
+    this.solution = solution;
+    // the solution's wires, to search its tree from the station
+    PackedBoard tree = new PackedBoard(board.width, board.height);
+    for (int i = 0; i < size; i++) {
+      tree.tiles[i] = (byte) solution[i];
+      if (board.has(i, PackedBoard.STATION)) {
+        this.station = i;
+      }
+    }
+    this.parent = new int[size];
+    int[] queue = new int[size];
+    int[] depth = new int[size];
+    boolean[] seen = new boolean[size];
+    queue[0] = this.station;
+    seen[this.station] = true;
+    this.parent[this.station] = -1;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int i = queue[head];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        if (tree.connected(i, d) && !seen[tree.neighbor(i, d)]) {
+          int n = tree.neighbor(i, d);
+          seen[n] = true;
+          this.parent[n] = i;
+          depth[n] = depth[i] + 1;
+          queue[tail++] = n;
+        }
+      }
+    }
+    this.reached = tail;
+    // the runs: every tile takes its own place, then its children's runs in turn
+    this.size = new int[size];
+    Arrays.fill(this.size, 1);
+    for (int k = tail - 1; k > 0; k--) {
+      this.size[this.parent[queue[k]]] += this.size[queue[k]];
+    }
+    this.place = new int[size];
+    int[] next = new int[size];
+    for (int k = 0; k < tail; k++) {
+      int i = queue[k];
+      if (k > 0) {
+        this.place[i] = next[this.parent[i]];
+        next[this.parent[i]] += this.size[i];
+      }
+      next[i] = this.place[i] + 1;
+    }
+    // tiles the solution does not reach, if any, are put after all others, and
+    // further than any tile it reaches
+    for (int i = 0; i < size; i++) {
+      if (!seen[i]) {
+        this.parent[i] = -1;
+        this.place[i] = tail++;
+        depth[i] = 2 * size;
+      }
+    }
+    this.order = new int[size];
+    this.leaves = 1;
+    while (this.leaves < size) {
+      this.leaves <<= 1;
+    }
+    this.add = new int[2 * this.leaves];
+    this.least = new int[2 * this.leaves];
+    Arrays.fill(this.least, NONE);
+    for (int i = 0; i < size; i++) {
+      this.order[this.place[i]] = i;
+      int leaf = this.leaves + this.place[i];
+      this.add[leaf] = depth[i];
+      if (!this.solved(i, board.wires(i))) {
+        this.least[leaf] = depth[i];
+        this.count++;
+      }
+    }
+    for (int v = this.leaves - 1; v >= 1; v--) {
+      this.combine(v);
+    }
+  }
+
+  // returns true if the given wires of the tile at the given node index are its
+  // solution's
+  boolean solved(int i, int wires) {
+    return wires == this.solution[i];
+  }
+
+  // EFFECT: records that the tile at the given node index now has the given wires
+  void update(int i, int wires) {
+    int leaf = this.leaves + this.place[i];
+    boolean wasSolved = this.least[leaf] == NONE;
+    boolean isSolved = this.solved(i, wires);
+    if (wasSolved != isSolved) {
+      this.least[leaf] = isSolved ? NONE : this.add[leaf];
+      this.count += isSolved ? -1 : 1;
+      this.pull(leaf);
+    }
+  }
+
+  // EFFECT: moves the station to the tile at the given node index, bringing the
+  // distances up to date a step at a time along the tree path from the station;
+  // returns false, changing nothing, if the solution does not reach that tile
+  boolean moveStation(int to) {
+    if (this.place[to] >= this.reached) {
+      return false;
+    }
+    int from = this.station;
+    // up to the lowest tile above both: every step brings all the tiles nearer but
+    // the ones under the tile left, which get further
+    while (!this.under(to, from)) {
+      this.apply(1, -1);
+      this.addRun(from, 2);
+      from = this.parent[from];
+    }
+    // and down to the new station, the other way round; the steps can be taken
+    // in any order, as they are all additions
+    for (int i = to; i != from; i = this.parent[i]) {
+      this.apply(1, 1);
+      this.addRun(i, -2);
+    }
+    this.station = to;
+    return true;
+  }
+
+  // returns true if the tile at the first given node index is under the tile at
+  // the second, or is it
+  boolean under(int i, int j) {
+    return this.place[j] <= this.place[i] && this.place[i] < this.place[j] + this.size[j];
+  }
+
+  // EFFECT: adds the given amount to the distance of every tile under the tile at
+  // the given node index, itself included
+  void addRun(int i, int amount) {
+    int lo = this.leaves + this.place[i];
+    int hi = lo + this.size[i];
+    int first = lo;
+    int last = hi - 1;
+    // the fewest nodes that cover the run, found from both ends
+    while (lo < hi) {
+      if ((lo & 1) == 1) {
+        this.apply(lo++, amount);
+      }
+      if ((hi & 1) == 1) {
+        this.apply(--hi, amount);
+      }
+      lo >>>= 1;
+      hi >>>= 1;
+    }
+    this.pull(first);
+    this.pull(last);
+  }
+
+  // EFFECT: adds the given amount to every place of the run of the given node
+  void apply(int v, int amount) {
+    this.add[v] += amount;
+    if (this.least[v] != NONE) {
+      this.least[v] += amount;
+    }
+  }
+
+  // EFFECT: works out again the least distance of every node above the given one
+  void pull(int v) {
+    for (v >>>= 1; v >= 1; v >>>= 1) {
+      this.combine(v);
+    }
+  }
+
+  // EFFECT: works out the least distance of the given node from its two children
+  void combine(int v) {
+    int m = Math.min(this.least[2 * v], this.least[2 * v + 1]);
+    this.least[v] = m == NONE ? NONE : m + this.add[v];
+  }
+
+  // returns how far the tile at the given node index is from the station along
+  // the tree, or further than any tile the solution reaches if it does not
+  int distance(int i) {
+    int v = this.leaves + this.place[i];
+    int distance = 0;
+    for (; v >= 1; v >>>= 1) {
+      distance += this.add[v];
+    }
+    return distance;
+  }
+
+  // returns the node index of an unsolved tile nearest the station, whose
+  // tiles between it and the station are all solved, or -1 if every tile is
+  // solved
+  int hint() {
+    if (this.count == 0) {
+      return -1;
+    }
+    int v = 1;
+    while (v < this.leaves) {
+      int target = this.least[v] - this.add[v];
+      v = this.least[2 * v] == target ? 2 * v : 2 * v + 1;
+    }
+    return this.order[v - this.leaves];
+  }
+}
@@ -0,0 +1,9 @@
+// to represent a player of LightEmAll that sees only the board, as a player
+// would: not the spanning tree or the solution the game was dealt from
+interface IBot {
+  // returns the name of the bot
+  String name();
+
+  // returns the node index of the tile to click next in the given game
+  int move(LightEmAll game);
+}
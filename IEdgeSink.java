@@ -0,0 +1,6 @@
+// to represent a consumer of the edges of a spanning tree, e.g. a board being
+// wired or a file the tree is streamed to
+interface IEdgeSink {
+  // EFFECT: takes in the edge with the given PackedEdges index
+  void accept(int edge);
+}
@@ -0,0 +1,9 @@
+import java.util.random.RandomGenerator;
+
+// to represent an algorithm that builds a random spanning tree of a grid,
+// i.e. the wiring of a LightEmAll board
+interface IMazeGenerator {
+  // EFFECT: passes every edge of a random spanning tree of a width x height grid
+  // to the given sink, as a PackedEdges edge index
+  void generate(int width, int height, RandomGenerator rand, IEdgeSink sink);
+}
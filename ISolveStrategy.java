@@ -0,0 +1,11 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// to represent one way of searching for a solution of a shuffled board
+interface ISolveStrategy {
+  // returns the name of this strategy, for reports
+  String name();
+
+  // returns the wires of a solution of the given board, as a connector mask per
+  // tile, or null if there is none or the given flag was raised first
+  int[] solve(PackedBoard board, AtomicBoolean cancelled);
+}
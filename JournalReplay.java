@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// to replay a journal on a game dealt from its seed, without drawing anything:
+// every click runs the incremental power update, not a full search. A snapshot
+// of the board is kept every so many moves, so seeking anywhere replays at most
+// that many moves
+class JournalReplay {
+  LightEmAll game;
+  int[] moves;
+  // how many moves were replayed
+  int position;
+  // a snapshot every interval moves, with the click count and the history at each
+  int interval;
+  ArrayList<PackedBoard> snapshots;
+  ArrayList<Integer> snapshotClicks;
+  ArrayList<MoveHistory> snapshotHistories;
+
+  // replays the given journal on a game generated with kruskal's algorithm,
+  // keeping a snapshot every given number of moves
+  JournalReplay(MoveJournal journal, int interval) {
+    this(journal, new KruskalGenerator(), interval);
+  }
+
+  // replays the given journal on a game generated by the given generator,
+  // keeping a snapshot every given number of moves
+  JournalReplay(MoveJournal journal, IMazeGenerator generator, int interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("Invalid snapshot interval");
+    }
+    this.game = new LightEmAll(journal.width, journal.height, generator, journal.seed);
+    this.moves = journal.moves();
+    this.interval = interval;
+    this.snapshots = new ArrayList<PackedBoard>(Arrays.asList(this.game.pack()));
+    this.snapshotClicks = new ArrayList<Integer>(Arrays.asList(0));
+    this.snapshotHistories = new ArrayList<MoveHistory>(Arrays.asList(this.game.history.copy()));
+  }
+
+  // EFFECT: replays the next move, taking a snapshot if one is due
+  void step() {
+    int move = this.moves[this.position++];
+    if (move % 2 == 0) {
+      this.game.click(move / 2);
+      this.game.countClicks++;
+    }
+    else if (move / 2 == MoveJournal.UNDO) {
+      this.game.undo();
+    }
+    else if (move / 2 == MoveJournal.REDO) {
+      this.game.redo();
+    }
+    else {
+      this.game.moveStation(MoveJournal.DIRECTIONS[move / 2]);
+    }
+    if (this.position == this.snapshots.size() * this.interval) {
+      this.snapshots.add(this.game.pack());
+      this.snapshotClicks.add(this.game.countClicks);
+      this.snapshotHistories.add(this.game.history.copy());
+    }
+  }
+
+  // EFFECT: replays every move left
+  void replayAll() {
+    this.seek(this.moves.length);
+  }
+
+  // EFFECT: brings the game to where it was after the given number of moves,
+  // from the nearest snapshot at or before it if that is closer
+  void seek(int target) {
+    if (target < 0 || target > this.moves.length) {
+      throw new IllegalArgumentException("Invalid move number");
+    }
+    int k = Math.min(target / this.interval, this.snapshots.size() - 1);
+    if (target < this.position || k * this.interval > this.position) {
+      this.game.restore(this.snapshots.get(k), this.snapshotClicks.get(k));
+      this.game.history = this.snapshotHistories.get(k).copy();
+      this.position = k * this.interval;
+    }
+    while (this.position < target) {
+      this.step();
+    }
+  }
+}
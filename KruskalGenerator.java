@@ -0,0 +1,13 @@
+import java.util.random.RandomGenerator;
+
+// to generate the tree with kruskal's algorithm over randomly weighted edges;
+// given the same random generator it picks the same tree as LightEmAll.kruskal
+class KruskalGenerator implements IMazeGenerator {
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    long[] worklist = PackedEdges.make(width, height, rand);
+    PackedEdges.sort(worklist);
+    for (long e : PackedEdges.kruskal(width, height, worklist)) {
+      sink.accept(PackedEdges.edge(e));
+    }
+  }
+}
@@ -1,8 +1,16 @@
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import tester.*;
 import javalib.impworld.*;
@@ -26,566 +34,761 @@ class LightEmAll extends World {
   int powerCol;
   // effective radius of power station
   // int radius;
-  Random rand;
+  // draws the weights of the edges of the board
+  RandomGenerator rand;
+  // the seed the game was dealt from, which with a journal replays it
+  long seed;
+  // where every click and station move is logged, or null
+  MoveJournal journal;
+  // the moves that can be taken back and made again
+  MoveHistory history = new MoveHistory(HISTORY);
 
   int countClicks;
+  // the clicks allowed before the game is lost
+  int clickBudget;
+
+  // the wires of every tile in the solution the par is counted towards, by node
+  // index, or null if the board has no solution
+  int[] solutionWires;
+  // the fewest clicks that solved the board when it was dealt, and that solve it now
+  int par;
+  int toSolve;
+  // the tiles not turned to the solution yet, or null if the board has no solution
+  // or the station moved since they were indexed
+  HintIndex hints;
+  // the node index of the tile shown as a hint, or -1 if there is none
+  int hinted = -1;
+
+  // which tiles are powered and where their power comes from, or null until the
+  // board is first powered
+  PowerTree power;
+  // how many nodes are powered
+  int poweredCount;
+
+  // the images of the tiles, shared with every other game
+  TileImageCache images = TileImageCache.SHARED;
+  // the tiles in view, painted into one image kept from frame to frame, or null if
+  // the next frame must paint it from scratch
+  ComputedPixelImage view;
+  // the nodes that changed since the view was painted, as a set and as a list of indices
+  BitSet dirty;
+  int[] dirtyTiles;
+  int dirtyCount;
+  // how many tiles the last frame painted
+  int painted;
+
+  // the size of a tile on screen, in pixels; always one of ZOOMS
+  int tileSize;
+  // the first column and row of tiles shown in the window
+  int panCol;
+  int panRow;
+  // the tile sizes the view can zoom between, all dividing the full tile size
+  static final int[] ZOOMS = {60, 30, 20, 15, 12, 10, 6};
+  // the most columns and rows of full size tiles the window shows
+  static final int VIEW_COLS = 20;
+  static final int VIEW_ROWS = 14;
+  // the largest board a windowed game can scroll over
+  static final int MAX_SIZE = 2000;
+  // how many times par a generated game allows in clicks, and the fewest clicks
+  // it allows: a full turn of one tile, so a board dealt solved can still be played
+  static final int PAR_BUDGET = 2;
+  static final int MIN_BUDGET = 4;
+  // how many moves can be taken back
+  static final int HISTORY = 4096;
+  // where k saves the game and l loads it
+  static final Path SAVE_FILE = Paths.get("lightemall.sav");
 
   // generates a functional LightEmAll game given only a width and height
   LightEmAll(int width, int height) {
+    this(width, height, new KruskalGenerator());
+  }
+
+  // generates the functional LightEmAll game dealt from the given seed
+  LightEmAll(int width, int height, long seed) {
+    this(width, height, new KruskalGenerator(), seed);
+  }
+
+  // generates a functional LightEmAll game whose wiring is a spanning tree built
+  // by the given generator
+  LightEmAll(int width, int height, IMazeGenerator generator) {
+    this(width, height, generator, new SplittableRandom().nextLong());
+  }
+
+  // generates the functional LightEmAll game whose wiring is a spanning tree built
+  // by the given generator, dealt from the given seed: the seed is split into one
+  // stream for the generator and one for the shuffle, so the same seed deals the
+  // same game whatever the generator draws
+  LightEmAll(int width, int height, IMazeGenerator generator, long seed) {
     this.width = width;
     this.height = height;
-    this.rand = new Random();
-    this.board = new Utils().makeBoard(width, height);
+    this.seed = seed;
+    this.rand = stream(seed, 0);
+    this.board = new Utils().makeBoard(width, height, MAX_SIZE, MAX_SIZE);
     this.nodes = new Utils().listNode(this.board);
-    this.mst = this.kruskal();
+    this.tileSize = 60;
+    this.mst = this.spanningTree(generator);
     this.powerRow = 0;
     this.powerCol = 0;
-    board.get(0).get(0).powerStation = true;
+    board.get(0).get(0).setPowerStation(true);
     new Utils().boardComplete(this.mst);
-    this.shuffle(new Random());
+    this.shuffle(stream(seed, 1));
     this.bfs();
     this.countClicks = 0;
+    this.computePar(this.treeSolution());
+    this.clickBudget = Math.max(MIN_BUDGET, PAR_BUDGET * this.par);
     // this.radius = radius;
   }
 
+  // returns the given stream of the given seed: the generator split from a
+  // SplittableRandom of the seed after that many others. Every stream is
+  // independent of the others, so drawing more from one never changes the next
+  static SplittableRandom stream(long seed, int k) {
+    SplittableRandom dealer = new SplittableRandom(seed);
+    for (int i = 0; i < k; i++) {
+      dealer.split();
+    }
+    return dealer.split();
+  }
+
   // constructor for testing 
   LightEmAll(ArrayList<ArrayList<GamePiece>> board, Random rand) {
     this.board = board;
+    new Utils().share(board);
     this.width = this.board.size();
     this.height = this.board.get(0).size();
     this.rand = rand;
     this.nodes = new Utils().listNode(this.board);
+    this.tileSize = 60;
     this.mst = this.kruskal();
     this.powerRow = 0;
     this.powerCol = 0;
-    board.get(0).get(0).powerStation = true;
+    board.get(0).get(0).setPowerStation(true);
     new Utils().boardComplete(this.mst);
     this.shuffle(rand);
     this.bfs();
     this.countClicks = 0;
+    this.computePar(this.treeSolution());
+    this.clickBudget = this.nodes.size() * 4;
     // this.radius = radius;
   }
 
   // constructor for testing
   LightEmAll(ArrayList<ArrayList<GamePiece>> board) {
+    this(board, Solver.solve(new PackedBoard(board)));
+  }
+
+  // makes a game of the given board as it is, counting par towards the given
+  // solution, as wires by node index, or null if it has none
+  LightEmAll(ArrayList<ArrayList<GamePiece>> board, int[] solution) {
     this.rand = new Random();
     this.board = board;
+    new Utils().share(board);
     this.nodes = new Utils().listNode(board);
+    this.tileSize = 60;
     this.mst = new ArrayList<Edge>();
     this.width = this.board.size();
     this.height = this.board.get(0).size();
     this.powerRow = new Utils().powerLocation("row", board);
     this.powerCol = new Utils().powerLocation("col", board);
     this.countClicks = 0;
+    for (GamePiece gp : this.nodes) {
+      if (gp.powered()) {
+        this.poweredCount++;
+      }
+    }
+    this.computePar(solution);
+    this.clickBudget = this.nodes.size() * 4;
   }
 
   //checks for boundaries, and checks that two pieces are connected
   // given a String to represent which tile is being checked
   boolean checkPieces(String s, GamePiece g) {
-    return (s.equals("up") && g.top && g.row > 0 
+    return (s.equals("up") && g.top() && g.row > 0 
         && g.connected(this.board.get(g.col).get(g.row - 1)) 
-        || (s.equals("down") && g.bottom && g.row != height - 1 
+        || (s.equals("down") && g.bottom() && g.row != height - 1 
         && g.connected(this.board.get(g.col).get(g.row + 1))) 
-        || (s.equals("left") && g.left && g.col > 0 
+        || (s.equals("left") && g.left() && g.col > 0 
             && g.connected(this.board.get(g.col - 1).get(g.row)))
-        || (s.equals("right") && g.right && g.col < width - 1 
+        || (s.equals("right") && g.right() && g.col < width - 1 
             && g.connected(this.board.get(g.col + 1).get(g.row))));
   }
 
-
   // EFFECT: powers nodes which are connected to the powerStation
   void bfs() {
-    // adds the powerStation to the beenAt list 
-    ArrayList<GamePiece> beenAt = new ArrayList<GamePiece>(
-        Arrays.asList(this.board.get(powerCol).get(powerRow)));
+    // the power tree works on the store the pieces are views of
+    new Utils().share(this.board);
+    PackedBoard store = this.nodes.get(0).store;
+    if (this.power == null || this.power.board != store) {
+      this.power = new PowerTree(store, this::markDirty);
+    }
+    // any tile may change, so the next frame paints the view from scratch
+    this.view = null;
+    this.power.bfs(this.powerCol * this.height + this.powerRow);
+    this.poweredCount = this.power.count;
+  }
 
-    // resets the board so nothing is connected
-    for (GamePiece gp : this.nodes) {
-      gp.powered = false;
-    }
-    // lights up the powerStation
-    this.board.get(powerCol).get(powerRow).powered = true;
-
-    // for every game piece that we've been at, checks if neighboring pieces are 
-    // connected and should be lit up 
-    for (int i = 0; i < beenAt.size(); i++) {
-      GamePiece g = beenAt.get(i);
-      if (g.right && g.col < this.width - 1) {
-        GamePiece rightTile = this.board.get(g.col + 1).get(g.row);
-        if (!(beenAt.contains(rightTile)) && g.connected(rightTile)) {
-          rightTile.powered = true;
-          beenAt.add(rightTile);
-        }
-      }
-      if (g.left && g.col > 0) {
-        GamePiece leftTile = this.board.get(g.col - 1).get(g.row);
-        if (!(beenAt.contains(leftTile)) && g.connected(leftTile)) {
-          leftTile.powered = true;
-          beenAt.add(leftTile);
-        }
-      }
-      if (g.bottom && g.row != height - 1) {
-        GamePiece botTile = this.board.get(g.col).get(g.row + 1);
-        if (!(beenAt.contains(botTile)) && g.connected(botTile)) {
-          botTile.powered = true;
-          beenAt.add(botTile);
-        }
-      }
-      if (g.top && g.row > 0) {
-        GamePiece topTile = this.board.get(g.col).get(g.row - 1);
-        if (!(beenAt.contains(topTile)) && g.connected(topTile)) {
-          topTile.powered = true;
-          beenAt.add(topTile);
-        }
-      }
-      // check if the game is won
-      this.gameWon();
+  // EFFECT: updates which nodes are powered after the given GamePiece was rotated,
+  // visiting only the tiles that lost or gained power; gives the same result as bfs
+  void updatePower(GamePiece g) {
+    if (this.power == null || this.power.board != g.store) {
+      this.bfs();
+      return;
     }
+    this.power.update(this.index(g), this.powerCol * this.height + this.powerRow);
+    this.poweredCount = this.power.count;
+  }
+
+  // returns the node index of the given GamePiece
+  int index(GamePiece g) {
+    return g.col * this.height + g.row;
   }
 
   // returns true if all nodes are powered
   boolean gameWon() {
-    ArrayList<GamePiece> poweredList = new ArrayList<GamePiece>();
-    for (GamePiece gp : this.nodes) {
-      if (gp.powered) {
-        poweredList.add(gp);
-      }
-    }
-    return (poweredList.size() == this.nodes.size());
+    return this.poweredCount == this.nodes.size();
   }
 
   // to represent the win screen
   public WorldScene lastScene(String s) {
     WorldScene w = makeScene();
-    w.placeImageXY(new TextImage(s, 40, Color.magenta), (this.width * 60) / 2,  
-        (this.height * 60) / 2);
+    w.placeImageXY(new TextImage(s, 40, Color.magenta), this.viewWidth() / 2,  
+        this.viewHeight() / 2);
     return w;
   }
 
-  // draws the scene 
+  // draws the scene around the view of the tiles kept from the frames before,
+  // painting again only the tiles that changed since the last frame. javalib
+  // draws every image placed on a scene every frame, so the scene places the view
+  // as one image and a frame costs as many tiles as changed, whatever the size of
+  // the board or of the view
   public WorldScene makeScene() {
-    WorldScene w = new WorldScene(this.width * 60, this.height * 60);
-    w.placeImageXY(new RectangleImage(this.width * 60, this.height * 60 + 100, 
-        OutlineMode.SOLID, Color.gray), this.width * 30, this.height * 60);
-    int x = 30;
-    for (int c = 0; c < this.board.size(); c++) {
-      int y = 30;
-      for (int r = 0; r < this.board.get(c).size(); r++) {
-        GamePiece tile = this.board.get(c).get(r);
-        if (tile.powered) {
-          w.placeImageXY(tile.tileImage(60, 10, Color.yellow, tile.powerStation), x, y);
-        }
-        else {
-          w.placeImageXY(tile.tileImage(60, 10, Color.gray, tile.powerStation), x, y);
+    if (this.view == null) {
+      this.paintView();
+    }
+    else {
+      this.painted = 0;
+      for (int k = 0; k < this.dirtyCount; k++) {
+        if (this.paintTile(this.nodes.get(this.dirtyTiles[k]))) {
+          this.painted++;
         }
-        y += 60;
+        this.dirty.clear(this.dirtyTiles[k]);
       }
-      x += 60;
+      this.dirtyCount = 0;
     }
-
-    OverlayOffsetImage clickCounter = new OverlayOffsetImage(new TextImage("Clicks", 
-        15, Color.black), 0, 45 ,new OverlayOffsetImage(new TextImage(Integer
-            .toString(this.countClicks), 30, Color.white), 0, 0, new RectangleImage(75, 50, 
-                OutlineMode.SOLID, Color.DARK_GRAY)));
-    w.placeImageXY(clickCounter, (this.width * 60) / 2, this.height * 60 + 50);
+    WorldScene w = new WorldScene(this.viewWidth(), this.viewHeight());
+    w.placeImageXY(new RectangleImage(this.viewWidth(), this.viewHeight() + 100, 
+        OutlineMode.SOLID, Color.gray), this.viewWidth() / 2, this.viewHeight());
+    w.placeImageXY(this.view, this.viewWidth() / 2, this.viewHeight() / 2);
+    this.drawClickCounter(w);
     return w;
   }
 
-  //EFFECT: rotates a GamePiece
-  public void rotate(GamePiece g) {
-    GamePiece rotated = new GamePiece(g.col, g.row, 
-        false, false, false, false, g.powerStation, g.powered);
-    if (g.left) {
-      rotated.top = true;
+  // EFFECT: paints every tile in view into a new view, and starts tracking the
+  // tiles that change from there; the dirty set is made once and then cleared
+  void paintView() {
+    this.view = new ComputedPixelImage(this.viewWidth(), this.viewHeight());
+    if (this.dirty == null) {
+      this.dirty = new BitSet(this.nodes.size());
+      this.dirtyTiles = new int[this.nodes.size()];
     }
-    if (g.right) {
-      rotated.bottom = true;
+    for (int k = 0; k < this.dirtyCount; k++) {
+      this.dirty.clear(this.dirtyTiles[k]);
     }
-    if (g.top) {
-      rotated.right = true;
-    }
-    if (g.bottom) {
-      rotated.left = true;
+    this.dirtyCount = 0;
+    this.painted = 0;
+    int lastCol = Math.min(this.width, this.panCol + this.viewCols());
+    int lastRow = Math.min(this.height, this.panRow + this.viewRows());
+    for (int c = this.panCol; c < lastCol; c++) {
+      for (int r = this.panRow; r < lastRow; r++) {
+        this.paintTile(this.board.get(c).get(r));
+        this.painted++;
+      }
     }
-    g.top = rotated.top;
-    g.bottom = rotated.bottom;
-    g.left = rotated.left;
-    g.right = rotated.right;
   }
 
-
-  //EFFECT: rotates the piece at the clicked position
-  public void onMouseClicked(Posn pos) {
-    if (pos.y <= this.height * 60 ) {
-      int colPosn = 0;
-      int rowPosn = 0;
-      if (pos.x >= 0 && pos.x <= this.width * 60 && pos.y >= 0 && pos.y <= this.height * 60) {
-        for (int i = 0; i < this.width; i++) {
-          if ((i * 60) <= pos.x && pos.x < ((i * 60) + 60)) {
-            colPosn = i;
-          }
-        }
-        for (int j = 0; j < this.height; j++) {
-          if ((j * 60) < pos.y && pos.y <= ((j * 60) + 60)) {
-            rowPosn = j;
-          }
-        }
-      }
-      this.rotate(this.board.get(colPosn).get(rowPosn));
-      this.bfs();
-      // if there are too many clicks 
-      if (this.countClicks == this.nodes.size() * 4) {
-        this.endOfWorld("GAME OVER!");
-      }
-      // if game is won
-      if (this.gameWon()) {
-        this.endOfWorld("YOU WON!");
+  // EFFECT: paints the given tile into the view if it is in view;
+  // returns true if it was painted
+  boolean paintTile(GamePiece tile) {
+    int c = tile.col - this.panCol;
+    int r = tile.row - this.panRow;
+    if (c < 0 || r < 0 || c >= this.viewCols() || r >= this.viewRows()) {
+      return false;
+    }
+    int wireWidth = Math.max(1, this.tileSize / 6);
+    int color = TileImageCache.UNPOWERED;
+    if (this.hinted == this.index(tile) && this.rotationsToSolve(this.hinted) != 0) {
+      color = TileImageCache.HINTED;
+    }
+    else if (tile.powered()) {
+      color = TileImageCache.POWERED;
+    }
+    Color[] pixels = this.images.pixels(tile, this.tileSize, wireWidth, color);
+    int x0 = c * this.tileSize;
+    int y0 = r * this.tileSize;
+    for (int y = 0; y < this.tileSize; y++) {
+      for (int x = 0; x < this.tileSize; x++) {
+        this.view.setPixel(x0 + x, y0 + y, pixels[y * this.tileSize + x]);
       }
-      // increment the clicks
-      this.countClicks++;
     }
+    return true;
   }
 
-  // EFFECT: shuffles the nodes
-  void shuffle(Random r) {
-    for (GamePiece g : this.nodes) {
-      for (int i =  0; i < r.nextInt(4); i++) {
-        this.rotate(g);
-      }
+  // EFFECT: marks the node at the given index to be painted again in the next frame
+  void markDirty(int i) {
+    if (this.view != null && !this.dirty.get(i)) {
+      this.dirty.set(i);
+      this.dirtyTiles[this.dirtyCount++] = i;
     }
   }
 
-  // EFFECT: on the key pressed, moves the powerStation
-  public void onKeyEvent(String s) {
-    GamePiece ps = board.get(powerCol).get(powerRow);
-    // if you click r a new game opens 
-    if (s.equals("r")) {
-      this.endOfWorld("RESET");
-      new LightEmAll(this.width, this.height).bigBang(this.width * 60, this.height * 60 + 100);
+  // EFFECT: draws par, the click count and the clicks left onto the given scene
+  void drawClickCounter(WorldScene w) {
+    w.placeImageXY(this.counter("Par", this.par), this.viewWidth() / 4, this.viewHeight() + 50);
+    w.placeImageXY(this.counter("Clicks", this.countClicks), this.viewWidth() / 2, 
+        this.viewHeight() + 50);
+    w.placeImageXY(this.counter("Left", this.clickBudget - this.countClicks), 
+        this.viewWidth() * 3 / 4, this.viewHeight() + 50);
+  }
+
+  // returns a counter showing the given value under the given label
+  WorldImage counter(String label, int value) {
+    return new OverlayOffsetImage(new TextImage(label, 
+        15, Color.black), 0, 45 ,new OverlayOffsetImage(new TextImage(Integer
+            .toString(value), 30, Color.white), 0, 0, new RectangleImage(75, 50, 
+                OutlineMode.SOLID, Color.DARK_GRAY)));
+  }
+
+  // returns the width of the board area of the window, in pixels
+  int viewWidth() {
+    return Math.min(this.width, VIEW_COLS) * 60;
+  }
+
+  // returns the height of the board area of the window, in pixels
+  int viewHeight() {
+    return Math.min(this.height, VIEW_ROWS) * 60;
+  }
+
+  // returns how many columns of tiles are in view at the current zoom
+  int viewCols() {
+    return this.viewWidth() / this.tileSize;
+  }
+
+  // returns how many rows of tiles are in view at the current zoom
+  int viewRows() {
+    return this.viewHeight() / this.tileSize;
+  }
+
+  // returns the node index of the tile at the given position in the window,
+  // or -1 if there is no tile there
+  int tileAt(Posn pos) {
+    if (pos.x < 0 || pos.y < 0 || pos.x >= this.viewWidth() || pos.y >= this.viewHeight()) {
+      return -1;
     }
+    int col = this.panCol + pos.x / this.tileSize;
+    int row = this.panRow + pos.y / this.tileSize;
+    if (col >= this.width || row >= this.height) {
+      return -1;
+    }
+    return col * this.height + row;
+  }
 
-    if (s.equals("up") && this.checkPieces(s, ps)) {
-      GamePiece topTile = this.board.get(ps.col).get(ps.row - 1);
-      ps.powerStation = false;
-      topTile.powerStation = true;
-      this.powerRow = topTile.row;
-      this.powerCol = topTile.col;
+  // EFFECT: scrolls the view by the given number of columns and rows,
+  // keeping it on the board
+  void pan(int cols, int rows) {
+    this.panCol = Math.max(0, Math.min(this.width - this.viewCols(), this.panCol + cols));
+    this.panRow = Math.max(0, Math.min(this.height - this.viewRows(), this.panRow + rows));
+    this.view = null;
+  }
+
+  // EFFECT: zooms the view in or out by the given number of steps,
+  // keeping the tile in the middle of the view in the middle
+  void zoom(int steps) {
+    int level = 0;
+    while (ZOOMS[level] != this.tileSize) {
+      level++;
     }
-    if (s.equals("down") && this.checkPieces(s, ps)) {
-      GamePiece botTile = this.board.get(ps.col).get(ps.row + 1);
-      ps.powerStation = false;
-      botTile.powerStation = true;
-      this.powerRow = botTile.row;
-      this.powerCol = botTile.col;
+    level = Math.max(0, Math.min(ZOOMS.length - 1, level + steps));
+    int midCol = this.panCol + this.viewCols() / 2;
+    int midRow = this.panRow + this.viewRows() / 2;
+    this.tileSize = ZOOMS[level];
+    this.panCol = midCol - this.viewCols() / 2;
+    this.panRow = midRow - this.viewRows() / 2;
+    this.pan(0, 0);
+  }
+
+  //EFFECT: rotates a GamePiece
+  public void rotate(GamePiece g) {
+    int i = this.index(g);
+    int before = this.rotationsToSolve(i);
+    g.rotate();
+    this.toSolve += this.rotationsToSolve(i) - before;
+    if (this.hints != null) {
+      this.hints.update(i, g.pack() & PackedBoard.WIRES);
     }
-    if (s.equals("left") && this.checkPieces(s, ps)) {
-      GamePiece leftTile = this.board.get(ps.col - 1).get(ps.row);
-      ps.powerStation = false;
-      leftTile.powerStation = true;
-      this.powerRow = leftTile.row;
-      this.powerCol = leftTile.col;
+    this.markDirty(i);
+  }
+
+  // returns the wires of every tile, by node index, once the tiles are rotated
+  // along the spanning tree: the solution the board was dealt from
+  int[] treeSolution() {
+    int[] wires = new int[this.nodes.size()];
+    for (Edge e : this.mst) {
+      int from = this.index(e.fromNode);
+      int to = this.index(e.toNode);
+      boolean across = to == from + this.height;
+      wires[from] |= across ? PackedBoard.RIGHT : PackedBoard.BOTTOM;
+      wires[to] |= across ? PackedBoard.LEFT : PackedBoard.TOP;
     }
-    if (s.equals("right") && this.checkPieces(s, ps)) {
-      GamePiece rightTile = this.board.get(ps.col + 1).get(ps.row);
-      ps.powerStation = false;
-      rightTile.powerStation = true;
-      this.powerRow = rightTile.row;
-      this.powerCol = rightTile.col;
+    return wires;
+  }
+
+  // EFFECT: counts the par of this board towards the given solution, as wires by
+  // node index; a board with no solution, given null, has a par of 0
+  void computePar(int[] solution) {
+    this.solutionWires = solution;
+    this.toSolve = 0;
+    for (int i = 0; i < this.nodes.size(); i++) {
+      this.toSolve += this.rotationsToSolve(i);
     }
+    this.par = this.toSolve;
+    this.indexHints();
   }
 
-  // creates all the possible edges in a game
-  ArrayList<Edge> loEdges(Random rand) {
-    ArrayList<Edge> allEdges = new ArrayList<Edge>();
-    for (int c = 0; c < this.board.size(); c++) {
-      for (int r = 0; r < this.board.get(c).size(); r++) {
-        if (c < this.board.size() - 1) {
-          Edge e = new Edge(this.board.get(c).get(r), this.board.get(c + 1).get(r), 
-              rand.nextInt());
-          allEdges.add(e);
-        }
-        if (r < this.board.get(c).size() - 1) {
-          Edge e = new Edge(this.board.get(c).get(r), this.board.get(c).get(r + 1), 
-              rand.nextInt());
-          allEdges.add(e);
-        }
-      }
+  // EFFECT: indexes the tiles not turned to the solution yet by how far they are
+  // from the power station along it
+  void indexHints() {
+    this.hints = this.solutionWires == null ? null
+        : new HintIndex(this.pack(), this.solutionWires);
+  }
+
+  // returns the node index of the tile to turn next: an unsolved tile nearest the
+  // power station, or -1 if there is none or the board has no solution
+  int hint() {
+    return this.hints == null ? -1 : this.hints.hint();
+  }
+
+  // EFFECT: shows the tile to turn next, in place of the one shown before
+  void showHint() {
+    if (this.hinted >= 0) {
+      this.markDirty(this.hinted);
     }
-    return allEdges; 
-  } 
+    this.hinted = this.hint();
+    if (this.hinted >= 0) {
+      this.markDirty(this.hinted);
+    }
+  }
 
-  // finds the representative of a given game piece 
-  GamePiece find(HashMap<GamePiece, GamePiece> hm, GamePiece key) {
-    if (hm.get(key).equals(key)) {
-      return key;
-      // this is the representative 
+  // returns the fewest clicks that rotate the tile at the given node index into
+  // its solution: 0 or 1 for straights, always 0 for crosses
+  int rotationsToSolve(int i) {
+    if (this.solutionWires == null) {
+      return 0;
     }
-    else {
-      // find the representative 
-      return find(hm, hm.get(key));
+    int wires = this.nodes.get(i).pack() & PackedBoard.WIRES;
+    int clicks = 0;
+    while (wires != this.solutionWires[i] && clicks < 4) {
+      wires = PackedBoard.rotateWires(wires);
+      clicks++;
     }
+    return clicks % 4;
   }
 
-  // EFFECT: unions together two game pieces 
-  void union(HashMap<GamePiece, GamePiece> representatives, GamePiece gp1,
-      GamePiece gp2) {
-    representatives.put(gp1, gp2);
+  // EFFECT: sets every tile and the station to the given packed board and the
+  // click count to the given one, then powers the board
+  void restore(PackedBoard board, int clicks) {
+    board.unpack(this.board);
+    this.powerRow = new Utils().powerLocation("row", this.board);
+    this.powerCol = new Utils().powerLocation("col", this.board);
+    this.countClicks = clicks;
+    this.toSolve = 0;
+    for (int i = 0; i < this.nodes.size(); i++) {
+      this.toSolve += this.rotationsToSolve(i);
+    }
+    // the station may be anywhere, and every tile has changed as much as it
+    // will, so the tiles are indexed again along with the power
+    this.indexHints();
+    this.bfs();
+  }
 
+  // returns this board packed into one flat array of tiles
+  PackedBoard pack() {
+    return new PackedBoard(this.board);
   }
 
-  // uses kruskal algorithm to randomize the board configuration
-  ArrayList<Edge> kruskal() {
-    HashMap<GamePiece, GamePiece> representatives = new HashMap<GamePiece, GamePiece>();
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
-    ArrayList<Edge> worklist = new Utils().sortEdges(this.loEdges(this.rand));
-    // makes every node it's own representative 
-    for (GamePiece gp: this.nodes) {
-      representatives.put(gp, gp);
-    }
-    // while there are more trees in the forest keep adding new edges
-    while (edgesInTree.size() < (this.height * this.width - 1)) {
-      Edge nextEdge = worklist.remove(0);
-      if (this.find(representatives, nextEdge.toNode)
-          .equals(this.find(representatives, nextEdge.fromNode))) {
-        // this would create a cycle so discard 
-      }
-      else {
-        // update the representatives and add the edge to the tree
-        edgesInTree.add(nextEdge);
-        union(representatives, find(representatives, nextEdge.toNode),
-            find(representatives, nextEdge.fromNode));
+  //EFFECT: rotates the piece at the clicked position
+  public void onMouseClicked(Posn pos) {
+    int i = this.tileAt(pos);
+    if (i >= 0) {
+      String outcome = this.rotateAndCheck(i);
+      if (outcome != null) {
+        this.endOfWorld(outcome);
       }
     }
+  }
 
-    return edgesInTree;
+  // EFFECT: clicks the tile at the given node index and counts the click, without
+  // ending the world; returns how the game ends after it, or null if it goes on.
+  // Players with no window, which must never build a scene, play through this
+  String rotateAndCheck(int i) {
+    this.click(i);
+    // increment the clicks
+    this.countClicks++;
+    return this.outcome();
   }
-}
 
-/// represents a tile on the board 
-class GamePiece {
-  int col;
-  int row;
-  // whether this GamePiece is connected to the
-  // adjacent left, right, top, or bottom pieces
-  boolean left;
-  boolean right;
-  boolean top;
-  boolean bottom;
-  // whether the power station is on this piece
-  boolean powerStation;
-  // whether this GamePiece is powered
-  boolean powered;
-
-  GamePiece(int col, int row, boolean left, boolean right, boolean top, boolean bottom, 
-      boolean powerStation, boolean powered) {
-    this.col = col;
-    this.row = row;
-    this.left = left;
-    this.right = right;
-    this.top = top;
-    this.bottom = bottom;
-    this.powerStation = powerStation;
-    this.powered = powered;
-  }
-
-  // Generate an image of this, the given GamePiece.
-  WorldImage tileImage(int size, int wireWidth, Color wireColor, boolean hasPowerStation) {
-    WorldImage image = new OverlayImage(
-        new RectangleImage(wireWidth, wireWidth, OutlineMode.SOLID, wireColor),
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.DARK_GRAY));
-    WorldImage vWire = new RectangleImage(wireWidth, (size + 1) / 2, OutlineMode.SOLID, wireColor);
-    WorldImage hWire = new RectangleImage((size + 1) / 2, wireWidth, OutlineMode.SOLID, wireColor);
-
-    if (this.top) {
-      image = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP, vWire, 0, 0, image);
-    } 
-    if (this.right) {
-      image = new OverlayOffsetAlign(AlignModeX.RIGHT, AlignModeY.MIDDLE, hWire, 0, 0, image);
-    }
-    if (this.bottom) {
-      image = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.BOTTOM, vWire, 0, 0, image);
-    }
-    if (this.left) {
-      image = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE, hWire, 0, 0, image);
-    }
-    if (hasPowerStation) {
-      image = new OverlayImage(
-          new OverlayImage(
-              new StarImage(size / 3, 7, OutlineMode.OUTLINE, new Color(255, 128, 0)),
-              new StarImage(size / 3, 7, OutlineMode.SOLID, new Color(0, 255, 255))),
-          image);
-    }
-    image = new OverlayImage(new RectangleImage(size, size, OutlineMode.OUTLINE, 
-        Color.BLACK), image);
-    return image;
-  }
-
-  // checks if this GamePiece and the given GamePiece are connected 
-  boolean connected(GamePiece gp) {
-    // top neighbor
-    if ((gp.row == this.row - 1) && gp.col == this.col) {
-      return (gp.bottom && this.top);
-    }
-    // bottom neighbor
-    if ((gp.row == this.row + 1) && gp.col == this.col) {
-      return (gp.top && this.bottom);
-    }
-    // left neighbor
-    if ((gp.row == this.row) && gp.col == this.col - 1) {
-      return (gp.right && this.left);
-    }
-    // right neighbor
-    if ((gp.row == this.row) && gp.col == this.col + 1) {
-      return (gp.left && this.right);
+  // returns how the game ends as it is now: "YOU WON!" if every tile is powered,
+  // "GAME OVER!" if a click was made past the budget, or null if it goes on
+  String outcome() {
+    if (this.gameWon()) {
+      return "YOU WON!";
     }
-    else {
-      return false;
+    if (this.countClicks > this.clickBudget) {
+      return "GAME OVER!";
     }
+    return null;
   }
-}
 
-// represents an edge 
-class Edge {
-  GamePiece fromNode;
-  GamePiece toNode;
-  int weight;
+  // EFFECT: ends the world with its outcome, if the game is over
+  void endIfOver() {
+    String outcome = this.outcome();
+    if (outcome != null) {
+      this.endOfWorld(outcome);
+    }
+  }
 
-  public Edge(GamePiece fromNode, GamePiece toNode) {
-    this.fromNode = fromNode;
-    this.toNode = toNode;
-    this.weight = new Random().nextInt();
+  // EFFECT: rotates the tile at the given node index and powers the board,
+  // logging the move
+  void click(int i) {
+    if (this.journal != null) {
+      this.journal.click(i);
+    }
+    this.history.record(i * 2);
+    GamePiece clicked = this.nodes.get(i);
+    this.rotate(clicked);
+    this.updatePower(clicked);
   }
 
-  public Edge(GamePiece fromNode, GamePiece toNode, int weight) {
-    this.fromNode = fromNode;
-    this.toNode = toNode;
-    this.weight = weight;
+  // EFFECT: takes back the last move that was not taken back, if there is one:
+  // turns the tile back or moves the station back, and powers the board.
+  // Clicks taken back still count
+  void undo() {
+    if (this.history.undoable > 0) {
+      if (this.journal != null) {
+        this.journal.moveStation(MoveJournal.UNDO);
+      }
+      int move = this.history.undo();
+      if (move % 2 == 0) {
+        GamePiece g = this.nodes.get(move / 2);
+        for (int k = 0; k < 3; k++) {
+          this.rotate(g);
+        }
+        this.updatePower(g);
+      }
+      else {
+        this.shiftStation(MoveJournal.DIRECTIONS[(move / 2 + 2) % 4]);
+      }
+    }
   }
 
-  Edge smaller(Edge e) {
-    if (this.weight <= e.weight) {
-      return this;
+  // EFFECT: makes again the last move taken back, if no other move was made since
+  void redo() {
+    if (this.history.redoable > 0) {
+      if (this.journal != null) {
+        this.journal.moveStation(MoveJournal.REDO);
+      }
+      int move = this.history.redo();
+      if (move % 2 == 0) {
+        GamePiece g = this.nodes.get(move / 2);
+        this.rotate(g);
+        this.updatePower(g);
+      }
+      else {
+        this.shiftStation(MoveJournal.DIRECTIONS[move / 2]);
+      }
     }
-    else {
-      return e;
+  }
+
+  // EFFECT: shuffles the nodes
+  void shuffle(RandomGenerator r) {
+    for (GamePiece g : this.nodes) {
+      for (int i =  0; i < r.nextInt(4); i++) {
+        this.rotate(g);
+      }
     }
   }
-}
 
-class Utils {
+  // EFFECT: saves this game to the given path; returns false, leaving the game
+  // as it is, if the file cannot be written
+  boolean saveTo(Path file) {
+    try {
+      BoardFile.save(this, file);
+      return true;
+    }
+    catch (UncheckedIOException e) {
+      return false;
+    }
+  }
 
-  // makes a list of nodes from the board
-  ArrayList<GamePiece> listNode(ArrayList<ArrayList<GamePiece>> board) {
-    ArrayList<GamePiece> nodeList = new ArrayList<GamePiece>();
-    for (ArrayList<GamePiece> gp: board) {
-      nodeList.addAll(gp);
+  // returns the game saved at the given path, or null if there is none or it
+  // cannot be read
+  LightEmAll loadFrom(Path file) {
+    try {
+      return BoardFile.load(file);
+    }
+    catch (UncheckedIOException | IllegalArgumentException e) {
+      return null;
     }
-    return nodeList;
   }
 
-  //returns column or row location of powerRow
-  int powerLocation(String s, ArrayList<ArrayList<GamePiece>> board) {
-    int loc = -1;
-    for (int c = 0; c < board.size(); c++) {
-      for (int r = 0; r < board.get(c).size(); r++) {
-        if (board.get(c).get(r).powerStation) {
-          if (s.equals("row")) {
-            loc = r;
-          }
-          if (s.equals("col")) {
-            loc = c;
-          }
-        }
+  // EFFECT: on the key pressed, moves the powerStation
+  public void onKeyEvent(String s) {
+    // if you click r a new game opens 
+    if (s.equals("r")) {
+      this.endOfWorld("RESET");
+      new LightEmAll(this.width, this.height).bigBang(this.viewWidth(), this.viewHeight() + 100);
+      return;
+    }
+    // saves the game with k, and swaps in the saved game with l
+    if (s.equals("k")) {
+      this.saveTo(SAVE_FILE);
+      return;
+    }
+    if (s.equals("l")) {
+      LightEmAll saved = this.loadFrom(SAVE_FILE);
+      if (saved != null) {
+        this.endOfWorld("LOADED");
+        saved.bigBang(saved.viewWidth(), saved.viewHeight() + 100);
       }
+      return;
     }
-    if (loc == -1) {
-      throw new IllegalArgumentException("No PowerStation");
+    this.press(s);
+    this.endIfOver();
+  }
+
+  // EFFECT: carries out the given key of the game itself, not opening a window
+  // or touching a file: undo, redo, hint, zoom, scroll or a station move
+  void press(String s) {
+    // takes back a move with u, and makes it again with y
+    if (s.equals("u")) {
+      this.undo();
     }
-    else {
-      return loc;
+    if (s.equals("y")) {
+      this.redo();
+    }
+    // shows the tile to turn next with h
+    if (s.equals("h")) {
+      this.showHint();
+    }
+    // zooms with = and -, and scrolls by half a view with w, a, s and d
+    if (s.equals("=")) {
+      this.zoom(-1);
+    }
+    if (s.equals("-")) {
+      this.zoom(1);
+    }
+    if (s.equals("w")) {
+      this.pan(0, -this.viewRows() / 2);
+    }
+    if (s.equals("s")) {
+      this.pan(0, this.viewRows() / 2);
+    }
+    if (s.equals("a")) {
+      this.pan(-this.viewCols() / 2, 0);
+    }
+    if (s.equals("d")) {
+      this.pan(this.viewCols() / 2, 0);
+    }
+
+    this.moveStation(s);
+  }
+
+  // EFFECT: moves the power station one tile in the given direction, "up",
+  // "down", "left" or "right", if its wires connect it there, logging the move;
+  // returns true if it moved
+  boolean moveStation(String s) {
+    if (!this.shiftStation(s)) {
+      return false;
     }
+    int direction = Arrays.asList(MoveJournal.DIRECTIONS).indexOf(s);
+    if (this.journal != null) {
+      this.journal.moveStation(direction);
+    }
+    this.history.record(direction * 2 + 1);
+    return true;
   }
 
-  // generates the board
-  ArrayList<ArrayList<GamePiece>> makeBoard(int width, int height) {
-    if (width < 2 || width > 20 || height < 2 || height > 14) {
-      throw new IllegalArgumentException("Invalid height or width");
+  // EFFECT: moves the power station like moveStation, without logging the move
+  boolean shiftStation(String s) {
+    GamePiece ps = this.board.get(this.powerCol).get(this.powerRow);
+    if (!this.checkPieces(s, ps)) {
+      return false;
     }
-    ArrayList<ArrayList<GamePiece>> board = new ArrayList<ArrayList<GamePiece>>();
-    for (int c = 0; c < width; c++) {
-      ArrayList<GamePiece> column = new ArrayList<GamePiece>();
-      for (int r = 0; r < height; r++) {
-        column.add(new GamePiece(c, r, false, false, false, false, false, false));
-      }
-      board.add(column);
-    }
-    return board;
-  }
-
-  // EFFECT: draws the game piece configurations 
-  void boardComplete(ArrayList<Edge> edges) {
-    for (int i = 0; i < edges.size(); i++) {
-      GamePiece from = edges.get(i).fromNode;
-      GamePiece to = edges.get(i).toNode;
-      int fromRow = from.row;
-      int fromCol = from.col;
-      int toRow = to.row;
-      int toCol = to.col;
-      if (fromRow < toRow) {
-        from.right = true;
-        to.left = true;
-      }
-      if (fromCol < toCol) {
-        from.bottom = true;
-        to.top = true;
-      }
-      else if (fromRow > toRow) {
-        from.left = true;
-        to.right = true;
-      }
-      else if (fromCol > toCol) {
-        from.top = true;
-        to.bottom = true;
-      } 
+    int col = ps.col + (s.equals("left") ? -1 : 0) + (s.equals("right") ? 1 : 0);
+    int row = ps.row + (s.equals("up") ? -1 : 0) + (s.equals("down") ? 1 : 0);
+    GamePiece next = this.board.get(col).get(row);
+    ps.setPowerStation(false);
+    next.setPowerStation(true);
+    this.powerRow = next.row;
+    this.powerCol = next.col;
+    if (this.power != null) {
+      this.power.reroot(this.index(next));
     }
+    this.markDirty(this.index(ps));
+    this.markDirty(this.index(next));
+    // the distances of the tiles change only along the way between the two, and
+    // a station the solution does not reach has to be indexed from scratch
+    if (this.hints != null && !this.hints.moveStation(this.index(next))) {
+      this.indexHints();
+    }
+    return true;
   }
 
-  //EFFECT: generates the different pieces 
-  void makePieces(ArrayList<ArrayList<GamePiece>> board, int powerRow, int powerCol) {
-    for (int c = 0; c < board.size(); c++) {
-      for (int r = 0; r < board.get(c).size(); r++) {
-        if (r < board.get(c).size() - 1) {
-          board.get(c).get(r).bottom = true;
-        }
-        if (r != 0) {
-          board.get(c).get(r).top = true;
-        }
-        if (r == powerRow && c < board.size() - 1) {
-          board.get(c).get(r).right = true;
-        }
-        if (r == powerRow && c > 0) {
-          board.get(c).get(r).left = true;
+  // creates all the possible edges in a game
+  ArrayList<Edge> loEdges(RandomGenerator rand) {
+    ArrayList<Edge> allEdges = new ArrayList<Edge>();
+    for (int c = 0; c < this.board.size(); c++) {
+      for (int r = 0; r < this.board.get(c).size(); r++) {
+        if (c < this.board.size() - 1) {
+          Edge e = new Edge(this.board.get(c).get(r), this.board.get(c + 1).get(r), 
+              rand.nextInt());
+          allEdges.add(e);
         }
-        if (r == powerRow && c == powerCol) {
-          board.get(c).get(r).powerStation = true;
+        if (r < this.board.get(c).size() - 1) {
+          Edge e = new Edge(this.board.get(c).get(r), this.board.get(c).get(r + 1), 
+              rand.nextInt());
+          allEdges.add(e);
         }
       }
     }
+    return allEdges; 
+  } 
+
+  // returns the edges of a spanning tree of the board built by the given generator,
+  // weighted by the order in which the generator picked them
+  ArrayList<Edge> spanningTree(IMazeGenerator generator) {
+    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
+    generator.generate(this.width, this.height, this.rand, e -> edgesInTree.add(
+        new Edge(this.nodes.get(PackedEdges.from(e)),
+            this.nodes.get(PackedEdges.to(e, this.height)), edgesInTree.size())));
+    return edgesInTree;
   }
 
-  // uses insertions sort to sort the edges based on increasing length
-  ArrayList<Edge> sortEdges(ArrayList<Edge> arr) {
-    for (int j = 0; j < arr.size(); j++) {
-      Edge currLow = arr.get(j);
-      for (int i = j + 1; i < arr.size(); i++) {
-        currLow = arr.get(i).smaller(currLow);
-      }
-      int indexLow = arr.indexOf(currLow);
-      Collections.swap(arr, j, indexLow);
+  // uses kruskal algorithm to randomize the board configuration
+  ArrayList<Edge> kruskal() {
+    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
+    // every possible edge as a packed weight and index, sorted by weight
+    long[] worklist = PackedEdges.make(this.width, this.height, this.rand);
+    PackedEdges.sort(worklist);
+    // keeps the edges that join two trees of the forest, discarding those that would
+    // create a cycle
+    for (long nextEdge : PackedEdges.kruskal(this.width, this.height, worklist)) {
+      int e = PackedEdges.edge(nextEdge);
+      edgesInTree.add(new Edge(this.nodes.get(PackedEdges.from(e)),
+          this.nodes.get(PackedEdges.to(e, this.height)), PackedEdges.weight(nextEdge)));
     }
-    return arr;
-  }
 
+    return edgesInTree;
+  }
 }
 
 class ExamplesLightEmAll {
@@ -656,8 +859,6 @@ class ExamplesLightEmAll {
   Random r;
   Random r2;
 
-  HashMap<GamePiece, GamePiece> hm1;
-
   void reset() {
 
     r = new Random(10);
@@ -732,8 +933,6 @@ class ExamplesLightEmAll {
     // makes a completed un-shuffled 2 by 2 board
     game4 = new LightEmAll(board3);
 
-
-
     // edges in game1
     e1 = new Edge(gp1, gp2, 5);
     e2 = new Edge(gp2, gp3, 3);
@@ -759,9 +958,6 @@ class ExamplesLightEmAll {
     edges5 = new ArrayList<Edge>(Arrays.asList(
         new Edge(gpa, gpc, 5), new Edge(gpb, gpd, 7), new Edge(gpc, gpd, 11)));
 
-    // hashMap examples
-    hm1 = new HashMap<GamePiece, GamePiece>();
-
     // adds the edges to game4
     this.game4.mst = edges5;
   }
@@ -812,91 +1008,91 @@ class ExamplesLightEmAll {
     reset();
     // unshuffled game board
     // GamePieces before bfs -> only powerStation should be powered (gp11)
-    t.checkExpect(this.gp1.powered, false);
-    t.checkExpect(this.gp3.powered, false);
-    t.checkExpect(this.gp8.powered, false);
-    t.checkExpect(this.gp10.powered, false);
-    t.checkExpect(this.gp11.powered, true);
-    t.checkExpect(this.gp16.powered, false);
+    t.checkExpect(this.gp1.powered(), false);
+    t.checkExpect(this.gp3.powered(), false);
+    t.checkExpect(this.gp8.powered(), false);
+    t.checkExpect(this.gp10.powered(), false);
+    t.checkExpect(this.gp11.powered(), true);
+    t.checkExpect(this.gp16.powered(), false);
     this.game1.bfs();
     // all connected to powerStation -> all pieces should be powered
-    t.checkExpect(this.gp1.powered, true);
-    t.checkExpect(this.gp3.powered, true);
-    t.checkExpect(this.gp8.powered, true);
-    t.checkExpect(this.gp10.powered, true);
-    t.checkExpect(this.gp11.powered, true);
-    t.checkExpect(this.gp16.powered, true);
+    t.checkExpect(this.gp1.powered(), true);
+    t.checkExpect(this.gp3.powered(), true);
+    t.checkExpect(this.gp8.powered(), true);
+    t.checkExpect(this.gp10.powered(), true);
+    t.checkExpect(this.gp11.powered(), true);
+    t.checkExpect(this.gp16.powered(), true);
     reset();
     // shuffled with seeded random -> only connected pieces should be powered
     this.game1.shuffle(r);
     this.game1.bfs();
-    t.checkExpect(this.gp1.powered, false);
-    t.checkExpect(this.gp3.powered, true);
-    t.checkExpect(this.gp8.powered, false);
-    t.checkExpect(this.gp10.powered, true);
-    t.checkExpect(this.gp11.powered, true);
-    t.checkExpect(this.gp16.powered, false);
+    t.checkExpect(this.gp1.powered(), false);
+    t.checkExpect(this.gp3.powered(), true);
+    t.checkExpect(this.gp8.powered(), false);
+    t.checkExpect(this.gp10.powered(), true);
+    t.checkExpect(this.gp11.powered(), true);
+    t.checkExpect(this.gp16.powered(), false);
   }
 
   // to test rotate 
   void testRotate(Tester t) {
     reset();
     // tests a top piece with only a bottom opening
-    t.checkExpect(this.gp1.bottom, true);
+    t.checkExpect(this.gp1.bottom(), true);
     this.game1.rotate(this.gp1);
-    t.checkExpect(this.gp1.bottom, false);
-    t.checkExpect(this.gp1.left, true);
+    t.checkExpect(this.gp1.bottom(), false);
+    t.checkExpect(this.gp1.left(), true);
     // tests a middle piece with a top and bot opening
-    t.checkExpect(this.gp2.bottom, true);
-    t.checkExpect(this.gp2.top, true);
+    t.checkExpect(this.gp2.bottom(), true);
+    t.checkExpect(this.gp2.top(), true);
     this.game1.rotate(this.gp2);
-    t.checkExpect(this.gp2.bottom, false);
-    t.checkExpect(this.gp2.top, false);
-    t.checkExpect(this.gp2.left, true);
-    t.checkExpect(this.gp2.right, true);
+    t.checkExpect(this.gp2.bottom(), false);
+    t.checkExpect(this.gp2.top(), false);
+    t.checkExpect(this.gp2.left(), true);
+    t.checkExpect(this.gp2.right(), true);
     // tests a piece with three openings
-    t.checkExpect(this.gp3.bottom, true);
-    t.checkExpect(this.gp3.top, true);
-    t.checkExpect(this.gp3.right, true);
+    t.checkExpect(this.gp3.bottom(), true);
+    t.checkExpect(this.gp3.top(), true);
+    t.checkExpect(this.gp3.right(), true);
     this.game1.rotate(this.gp3);
-    t.checkExpect(this.gp3.bottom, true);
-    t.checkExpect(this.gp2.top, false);
-    t.checkExpect(this.gp3.left, true);
-    t.checkExpect(this.gp3.right, true);
+    t.checkExpect(this.gp3.bottom(), true);
+    t.checkExpect(this.gp2.top(), false);
+    t.checkExpect(this.gp3.left(), true);
+    t.checkExpect(this.gp3.right(), true);
     // tests a piece with 4 openings 
-    t.checkExpect(this.gp7.bottom, true);
-    t.checkExpect(this.gp7.top, true);
-    t.checkExpect(this.gp7.right, true);
-    t.checkExpect(this.gp7.left, true);
+    t.checkExpect(this.gp7.bottom(), true);
+    t.checkExpect(this.gp7.top(), true);
+    t.checkExpect(this.gp7.right(), true);
+    t.checkExpect(this.gp7.left(), true);
     this.game1.rotate(this.gp3);
-    t.checkExpect(this.gp7.bottom, true);
-    t.checkExpect(this.gp7.top, true);
-    t.checkExpect(this.gp7.left, true);
-    t.checkExpect(this.gp7.right, true);
+    t.checkExpect(this.gp7.bottom(), true);
+    t.checkExpect(this.gp7.top(), true);
+    t.checkExpect(this.gp7.left(), true);
+    t.checkExpect(this.gp7.right(), true);
   }
 
   //to test shuffle
   void testShuffle(Tester t) {
     reset();
-    t.checkExpect(this.gp1.bottom, true);
-    t.checkExpect(this.gp2.bottom, true);
-    t.checkExpect(this.gp2.top, true);
-    t.checkExpect(this.gp3.bottom, true);
-    t.checkExpect(this.gp3.right, true);
-    t.checkExpect(this.gp7.right, true);
-    t.checkExpect(this.gp16.top, true);
-    t.checkExpect(this.gp15.left, true);
-    t.checkExpect(this.gp15.bottom, true);
+    t.checkExpect(this.gp1.bottom(), true);
+    t.checkExpect(this.gp2.bottom(), true);
+    t.checkExpect(this.gp2.top(), true);
+    t.checkExpect(this.gp3.bottom(), true);
+    t.checkExpect(this.gp3.right(), true);
+    t.checkExpect(this.gp7.right(), true);
+    t.checkExpect(this.gp16.top(), true);
+    t.checkExpect(this.gp15.left(), true);
+    t.checkExpect(this.gp15.bottom(), true);
     this.game1.shuffle(r);
-    t.checkExpect(this.gp1.bottom, false);
-    t.checkExpect(this.gp2.bottom, false);
-    t.checkExpect(this.gp2.right, true);
-    t.checkExpect(this.gp3.bottom, true);
-    t.checkExpect(this.gp3.right, true);
-    t.checkExpect(this.gp7.right, true);
-    t.checkExpect(this.gp16.top, false);
-    t.checkExpect(this.gp15.left, true);
-    t.checkExpect(this.gp15.bottom, false);
+    t.checkExpect(this.gp1.bottom(), false);
+    t.checkExpect(this.gp2.bottom(), false);
+    t.checkExpect(this.gp2.right(), true);
+    t.checkExpect(this.gp3.bottom(), true);
+    t.checkExpect(this.gp3.right(), true);
+    t.checkExpect(this.gp7.right(), true);
+    t.checkExpect(this.gp16.top(), false);
+    t.checkExpect(this.gp15.left(), true);
+    t.checkExpect(this.gp15.bottom(), false);
   }
 
   //to test Connected 
@@ -915,35 +1111,35 @@ class ExamplesLightEmAll {
   // test onMouseClicked
   void testOnMouseClicked(Tester t) {
     reset();
-    t.checkExpect(gp1.top, false);
-    t.checkExpect(gp1.bottom, true);
-    t.checkExpect(gp1.left, false);
-    t.checkExpect(gp1.right, false);
+    t.checkExpect(gp1.top(), false);
+    t.checkExpect(gp1.bottom(), true);
+    t.checkExpect(gp1.left(), false);
+    t.checkExpect(gp1.right(), false);
     this.game1.onMouseClicked(new Posn(20, 20));
-    t.checkExpect(gp1.top, false);
-    t.checkExpect(gp1.bottom, false);
-    t.checkExpect(gp1.left, true);
-    t.checkExpect(gp1.right, false);
-
-    t.checkExpect(gp2.top, true);
-    t.checkExpect(gp2.bottom, true);
-    t.checkExpect(gp2.left, false);
-    t.checkExpect(gp2.right, false);
+    t.checkExpect(gp1.top(), false);
+    t.checkExpect(gp1.bottom(), false);
+    t.checkExpect(gp1.left(), true);
+    t.checkExpect(gp1.right(), false);
+
+    t.checkExpect(gp2.top(), true);
+    t.checkExpect(gp2.bottom(), true);
+    t.checkExpect(gp2.left(), false);
+    t.checkExpect(gp2.right(), false);
     this.game1.onMouseClicked(new Posn(20, 80));
-    t.checkExpect(gp2.top, false);
-    t.checkExpect(gp2.bottom, false);
-    t.checkExpect(gp2.left, true);
-    t.checkExpect(gp2.right, true);
-
-    t.checkExpect(gp15.top, true);
-    t.checkExpect(gp15.bottom, true);
-    t.checkExpect(gp15.left, true);
-    t.checkExpect(gp15.right, false);
+    t.checkExpect(gp2.top(), false);
+    t.checkExpect(gp2.bottom(), false);
+    t.checkExpect(gp2.left(), true);
+    t.checkExpect(gp2.right(), true);
+
+    t.checkExpect(gp15.top(), true);
+    t.checkExpect(gp15.bottom(), true);
+    t.checkExpect(gp15.left(), true);
+    t.checkExpect(gp15.right(), false);
     this.game1.onMouseClicked(new Posn(200, 150));
-    t.checkExpect(gp15.top, true);
-    t.checkExpect(gp15.bottom, false);
-    t.checkExpect(gp15.left, true);
-    t.checkExpect(gp15.right, true);
+    t.checkExpect(gp15.top(), true);
+    t.checkExpect(gp15.bottom(), false);
+    t.checkExpect(gp15.left(), true);
+    t.checkExpect(gp15.right(), true);
   }
 
   // test onKeyEvent
@@ -951,28 +1147,28 @@ class ExamplesLightEmAll {
     reset();
     t.checkExpect(game1.powerCol, 2);
     t.checkExpect(game1.powerRow, 2);
-    t.checkExpect(this.gp11.powerStation, true);
+    t.checkExpect(this.gp11.powerStation(), true);
     this.game1.onKeyEvent("up");
     t.checkExpect(game1.powerCol, 2);
     t.checkExpect(game1.powerRow, 1);
-    t.checkExpect(this.gp10.powerStation, true);
+    t.checkExpect(this.gp10.powerStation(), true);
     this.game1.onKeyEvent("down");
     t.checkExpect(game1.powerCol, 2);
     t.checkExpect(game1.powerRow, 2);
-    t.checkExpect(this.gp11.powerStation, true);
+    t.checkExpect(this.gp11.powerStation(), true);
     this.game1.onKeyEvent("right");
     t.checkExpect(game1.powerCol, 3);
     t.checkExpect(game1.powerRow, 2);
-    t.checkExpect(this.gp15.powerStation, true);
+    t.checkExpect(this.gp15.powerStation(), true);
     // does not change if there is no connected piece in given direction
     this.game1.onKeyEvent("right");
     t.checkExpect(game1.powerCol, 3);
     t.checkExpect(game1.powerRow, 2);
-    t.checkExpect(this.gp15.powerStation, true);
+    t.checkExpect(this.gp15.powerStation(), true);
     this.game1.onKeyEvent("left");
     t.checkExpect(game1.powerCol, 2);
     t.checkExpect(game1.powerRow, 2);
-    t.checkExpect(this.gp11.powerStation, true);
+    t.checkExpect(this.gp11.powerStation(), true);
   }
 
   //to test makeBoard 
@@ -995,116 +1191,134 @@ class ExamplesLightEmAll {
     reset();
     // makes a blank 4x4 board -> no powerstation, no wires
     ArrayList<ArrayList<GamePiece>> board3 = new Utils().makeBoard(4, 4);
-    t.checkExpect(board3.get(0).get(0).top, false);
-    t.checkExpect(board3.get(0).get(0).bottom, false);
-    t.checkExpect(board3.get(0).get(0).left, false);
-    t.checkExpect(board3.get(0).get(0).right, false);
-    t.checkExpect(board3.get(0).get(0).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(1).top, false);
-    t.checkExpect(board3.get(0).get(1).bottom, false);
-    t.checkExpect(board3.get(0).get(1).left, false);
-    t.checkExpect(board3.get(0).get(1).right, false);
-    t.checkExpect(board3.get(0).get(1).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(2).top, false);
-    t.checkExpect(board3.get(0).get(2).bottom, false);
-    t.checkExpect(board3.get(0).get(2).left, false);
-    t.checkExpect(board3.get(0).get(2).right, false);
-    t.checkExpect(board3.get(0).get(2).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(3).top, false);
-    t.checkExpect(board3.get(0).get(3).bottom, false);
-    t.checkExpect(board3.get(0).get(3).left, false);
-    t.checkExpect(board3.get(0).get(3).right, false);
-    t.checkExpect(board3.get(0).get(3).powerStation, false);
-
-    t.checkExpect(board3.get(2).get(2).top, false);
-    t.checkExpect(board3.get(2).get(2).bottom, false);
-    t.checkExpect(board3.get(2).get(2).left, false);
-    t.checkExpect(board3.get(2).get(2).right, false);
-    t.checkExpect(board3.get(2).get(2).powerStation, false);
+    t.checkExpect(board3.get(0).get(0).top(), false);
+    t.checkExpect(board3.get(0).get(0).bottom(), false);
+    t.checkExpect(board3.get(0).get(0).left(), false);
+    t.checkExpect(board3.get(0).get(0).right(), false);
+    t.checkExpect(board3.get(0).get(0).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(1).top(), false);
+    t.checkExpect(board3.get(0).get(1).bottom(), false);
+    t.checkExpect(board3.get(0).get(1).left(), false);
+    t.checkExpect(board3.get(0).get(1).right(), false);
+    t.checkExpect(board3.get(0).get(1).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(2).top(), false);
+    t.checkExpect(board3.get(0).get(2).bottom(), false);
+    t.checkExpect(board3.get(0).get(2).left(), false);
+    t.checkExpect(board3.get(0).get(2).right(), false);
+    t.checkExpect(board3.get(0).get(2).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(3).top(), false);
+    t.checkExpect(board3.get(0).get(3).bottom(), false);
+    t.checkExpect(board3.get(0).get(3).left(), false);
+    t.checkExpect(board3.get(0).get(3).right(), false);
+    t.checkExpect(board3.get(0).get(3).powerStation(), false);
+
+    t.checkExpect(board3.get(2).get(2).top(), false);
+    t.checkExpect(board3.get(2).get(2).bottom(), false);
+    t.checkExpect(board3.get(2).get(2).left(), false);
+    t.checkExpect(board3.get(2).get(2).right(), false);
+    t.checkExpect(board3.get(2).get(2).powerStation(), false);
 
     // check that pieces are made correctly given position
     // check powerStation is in correct spot
     new Utils().makePieces(board3, 2, 2);
 
-    t.checkExpect(board3.get(0).get(0).top, false);
-    t.checkExpect(board3.get(0).get(0).bottom, true);
-    t.checkExpect(board3.get(0).get(0).left, false);
-    t.checkExpect(board3.get(0).get(0).right, false);
-    t.checkExpect(board3.get(0).get(0).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(1).top, true);
-    t.checkExpect(board3.get(0).get(1).bottom, true);
-    t.checkExpect(board3.get(0).get(1).left, false);
-    t.checkExpect(board3.get(0).get(1).right, false);
-    t.checkExpect(board3.get(0).get(1).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(2).top, true);
-    t.checkExpect(board3.get(0).get(2).bottom, true);
-    t.checkExpect(board3.get(0).get(2).left, false);
-    t.checkExpect(board3.get(0).get(2).right, true);
-    t.checkExpect(board3.get(0).get(2).powerStation, false);
-
-    t.checkExpect(board3.get(0).get(3).top, true);
-    t.checkExpect(board3.get(0).get(3).bottom, false);
-    t.checkExpect(board3.get(0).get(3).left, false);
-    t.checkExpect(board3.get(0).get(3).right, false);
-    t.checkExpect(board3.get(0).get(3).powerStation, false);
-
-    t.checkExpect(board3.get(2).get(2).top, true);
-    t.checkExpect(board3.get(2).get(2).bottom, true);
-    t.checkExpect(board3.get(2).get(2).left, true);
-    t.checkExpect(board3.get(2).get(2).right, true);
-    t.checkExpect(board3.get(2).get(2).powerStation, true);
+    t.checkExpect(board3.get(0).get(0).top(), false);
+    t.checkExpect(board3.get(0).get(0).bottom(), true);
+    t.checkExpect(board3.get(0).get(0).left(), false);
+    t.checkExpect(board3.get(0).get(0).right(), false);
+    t.checkExpect(board3.get(0).get(0).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(1).top(), true);
+    t.checkExpect(board3.get(0).get(1).bottom(), true);
+    t.checkExpect(board3.get(0).get(1).left(), false);
+    t.checkExpect(board3.get(0).get(1).right(), false);
+    t.checkExpect(board3.get(0).get(1).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(2).top(), true);
+    t.checkExpect(board3.get(0).get(2).bottom(), true);
+    t.checkExpect(board3.get(0).get(2).left(), false);
+    t.checkExpect(board3.get(0).get(2).right(), true);
+    t.checkExpect(board3.get(0).get(2).powerStation(), false);
+
+    t.checkExpect(board3.get(0).get(3).top(), true);
+    t.checkExpect(board3.get(0).get(3).bottom(), false);
+    t.checkExpect(board3.get(0).get(3).left(), false);
+    t.checkExpect(board3.get(0).get(3).right(), false);
+    t.checkExpect(board3.get(0).get(3).powerStation(), false);
+
+    t.checkExpect(board3.get(2).get(2).top(), true);
+    t.checkExpect(board3.get(2).get(2).bottom(), true);
+    t.checkExpect(board3.get(2).get(2).left(), true);
+    t.checkExpect(board3.get(2).get(2).right(), true);
+    t.checkExpect(board3.get(2).get(2).powerStation(), true);
   }
 
   // test gameWon
   void testGameWon(Tester t) {
     reset();
     t.checkExpect(this.game1.gameWon(), false);
+    t.checkExpect(this.game1.poweredCount, 1);
     this.game1.bfs();
     t.checkExpect(this.game1.gameWon(), true);
+    t.checkExpect(this.game1.poweredCount, 16);
+    // a full bfs after losing power recounts the powered nodes
+    this.game1.rotate(this.gp10);
+    this.game1.bfs();
+    t.checkExpect(this.game1.gameWon(), false);
+    t.checkExpect(this.game1.poweredCount, 14);
   }
 
   // tests find 
   boolean testFind(Tester t) {
     reset();
-    // set all game piece's representatives to themselves 
-    hm1.put(this.gp01, this.gp01);
-    hm1.put(this.gp02, this.gp04);
-    hm1.put(this.gp03, this.gp01);
-    hm1.put(this.gp04, this.gp03);
-    // each game piece's representative should be itself
-    return t.checkExpect(this.game3.find(this.hm1, this.gp01), this.gp01)
-        && t.checkExpect(this.game3.find(this.hm1, this.gp02), this.gp01)
-        && t.checkExpect(this.game3.find(this.hm1, this.gp03), this.gp01)
-        && t.checkExpect(this.game3.find(this.hm1, this.gp04), this.gp01); 
+    UnionFind uf = new UnionFind(4);
+    // every element starts out as its own representative
+    boolean alone = t.checkExpect(uf.find(0), 0)
+        && t.checkExpect(uf.find(3), 3)
+        && t.checkExpect(uf.sets, 4);
+    // builds the chain 3 -> 2 -> 1 -> 0 by hand
+    uf.parent[1] = 0;
+    uf.parent[2] = 1;
+    uf.parent[3] = 2;
+    return alone
+        && t.checkExpect(uf.find(3), 0)
+        // the path to the representative is compressed
+        && t.checkExpect(uf.parent[3], 0)
+        && t.checkExpect(uf.parent[2], 0)
+        && t.checkExpect(uf.find(1), 0)
+        && t.checkExpect(uf.same(1, 3), true);
   }
 
   // test union 
   void testUnion(Tester t) {
     reset();
-    // set all game piece's representatives to themselves 
-    hm1.put(this.gp01, this.gp01);
-    hm1.put(this.gp02, this.gp02);
-    hm1.put(this.gp03, this.gp03);
-    hm1.put(this.gp04, this.gp04);
-    // check that gp01's representative is itself
-    t.checkExpect(this.game3.find(this.hm1, this.gp01), this.gp01);
-    // union gp03 and gp01
-    this.game3.union(this.hm1, this.gp03, this.gp01);
-    // check that gp03's representative is now gp01
-    t.checkExpect(this.game3.find(this.hm1, this.gp03), this.gp01);
-    // union gp04 and gp03
-    this.game3.union(this.hm1, this.gp04, this.gp03);
-    // check that gp04's representative is now also gp01
-    t.checkExpect(this.game3.find(this.hm1, this.gp04), this.gp01);
-    // union gp02 and gp04
-    this.game3.union(this.hm1, this.gp02, this.gp04);
-    // check that gp02's representative is now also gp01
-    t.checkExpect(this.game3.find(this.hm1, this.gp02), this.gp01);
+    UnionFind uf = new UnionFind(5);
+    // union 2 and 0, which have the same rank, so 0 goes under 2
+    t.checkExpect(uf.union(2, 0), true);
+    t.checkExpect(uf.find(0), 2);
+    t.checkExpect(uf.rank[2], 1);
+    // union 3 and 2, so the lower ranked 3 goes under 2
+    t.checkExpect(uf.union(3, 2), true);
+    t.checkExpect(uf.find(3), 2);
+    t.checkExpect(uf.rank[2], 1);
+    // already in the same set
+    t.checkExpect(uf.union(0, 3), false);
+    t.checkExpect(uf.sets, 3);
+    t.checkExpect(uf.same(1, 4), false);
+    t.checkExpect(uf.union(4, 1), true);
+    t.checkExpect(uf.union(1, 0), true);
+    t.checkExpect(uf.sets, 1);
+    t.checkExpect(uf.same(1, 4), true);
+    // a long chain of unions stays shallow
+    UnionFind big = new UnionFind(100000);
+    for (int i = 1; i < 100000; i++) {
+      big.union(i - 1, i);
+    }
+    t.checkExpect(big.sets, 1);
+    t.checkExpect(big.rank[big.find(0)] <= 17, true);
   }
 
   // test kruskal 
@@ -1125,59 +1339,1524 @@ class ExamplesLightEmAll {
   void testBoardComplete(Tester t) {
     reset();
 
-    t.checkExpect(board3.get(0).get(0).top, false);
-    t.checkExpect(board3.get(0).get(0).bottom, false);
-    t.checkExpect(board3.get(0).get(0).left, false);
-    t.checkExpect(board3.get(0).get(0).right, false);
+    t.checkExpect(board3.get(0).get(0).top(), false);
+    t.checkExpect(board3.get(0).get(0).bottom(), false);
+    t.checkExpect(board3.get(0).get(0).left(), false);
+    t.checkExpect(board3.get(0).get(0).right(), false);
 
-    t.checkExpect(board3.get(0).get(1).top, false);
-    t.checkExpect(board3.get(0).get(1).bottom, false);
-    t.checkExpect(board3.get(0).get(1).left, false);
-    t.checkExpect(board3.get(0).get(1).right, false);
+    t.checkExpect(board3.get(0).get(1).top(), false);
+    t.checkExpect(board3.get(0).get(1).bottom(), false);
+    t.checkExpect(board3.get(0).get(1).left(), false);
+    t.checkExpect(board3.get(0).get(1).right(), false);
 
-    t.checkExpect(board3.get(1).get(0).top, false);
-    t.checkExpect(board3.get(1).get(0).bottom, false);
-    t.checkExpect(board3.get(1).get(0).left, false);
-    t.checkExpect(board3.get(1).get(0).right, false);
+    t.checkExpect(board3.get(1).get(0).top(), false);
+    t.checkExpect(board3.get(1).get(0).bottom(), false);
+    t.checkExpect(board3.get(1).get(0).left(), false);
+    t.checkExpect(board3.get(1).get(0).right(), false);
 
-    t.checkExpect(board3.get(1).get(1).top, false);
-    t.checkExpect(board3.get(1).get(1).bottom, false);
-    t.checkExpect(board3.get(1).get(1).left, false);
-    t.checkExpect(board3.get(1).get(1).right, false);
+    t.checkExpect(board3.get(1).get(1).top(), false);
+    t.checkExpect(board3.get(1).get(1).bottom(), false);
+    t.checkExpect(board3.get(1).get(1).left(), false);
+    t.checkExpect(board3.get(1).get(1).right(), false);
 
     // makes a complete board (with the pieces drawn) and shuffles it
     new Utils().boardComplete(this.edges5);
 
-    t.checkExpect(board3.get(0).get(0).top, false);
-    t.checkExpect(board3.get(0).get(0).bottom, true);
-    t.checkExpect(board3.get(0).get(0).left, false);
-    t.checkExpect(board3.get(0).get(0).right, false);
+    t.checkExpect(board3.get(0).get(0).top(), false);
+    t.checkExpect(board3.get(0).get(0).bottom(), true);
+    t.checkExpect(board3.get(0).get(0).left(), false);
+    t.checkExpect(board3.get(0).get(0).right(), false);
+
+    t.checkExpect(board3.get(0).get(1).top(), false);
+    t.checkExpect(board3.get(0).get(1).bottom(), true);
+    t.checkExpect(board3.get(0).get(1).left(), false);
+    t.checkExpect(board3.get(0).get(1).right(), false);
+
+    t.checkExpect(board3.get(1).get(0).top(), true);
+    t.checkExpect(board3.get(1).get(0).bottom(), false);
+    t.checkExpect(board3.get(1).get(0).left(), false);
+    t.checkExpect(board3.get(1).get(0).right(), true);
+
+    t.checkExpect(board3.get(1).get(1).top(), true);
+    t.checkExpect(board3.get(1).get(1).bottom(), false);
+    t.checkExpect(board3.get(1).get(1).left(), true);
+    t.checkExpect(board3.get(1).get(1).right(), false);
+  }
+
+  // test pack and unpack
+  void testPack(Tester t) {
+    reset();
+    t.checkExpect(this.gp1.pack(), PackedBoard.BOTTOM);
+    t.checkExpect(this.gp11.pack(), PackedBoard.WIRES | PackedBoard.STATION
+        | PackedBoard.POWERED);
+    t.checkExpect(this.gp15.pack(), PackedBoard.LEFT | PackedBoard.TOP | PackedBoard.BOTTOM);
+    this.gp1.unpack(PackedBoard.LEFT | PackedBoard.POWERED);
+    t.checkExpect(this.gp1.left(), true);
+    t.checkExpect(this.gp1.bottom(), false);
+    t.checkExpect(this.gp1.powered(), true);
+    t.checkExpect(this.gp1.powerStation(), false);
+  }
+
+  // test PackedBoard
+  void testPackedBoard(Tester t) {
+    reset();
+    PackedBoard pb = this.game1.pack();
+    t.checkExpect(pb.tiles.length, 16);
+    t.checkExpect(pb.index(2, 2), 10);
+    t.checkExpect(pb.col(10), 2);
+    t.checkExpect(pb.row(10), 2);
+    t.checkExpect(pb.has(10, PackedBoard.STATION), true);
+    t.checkExpect(pb.wires(0), PackedBoard.BOTTOM);
+    // neighbors stop at the border
+    t.checkExpect(pb.neighbor(0, PackedBoard.TOP), -1);
+    t.checkExpect(pb.neighbor(0, PackedBoard.LEFT), -1);
+    t.checkExpect(pb.neighbor(0, PackedBoard.BOTTOM), 1);
+    t.checkExpect(pb.neighbor(0, PackedBoard.RIGHT), 4);
+    t.checkExpect(pb.neighbor(15, PackedBoard.RIGHT), -1);
+    t.checkExpect(pb.neighbor(15, PackedBoard.BOTTOM), -1);
+    // connected agrees with GamePiece.connected
+    t.checkExpect(pb.connected(0, PackedBoard.BOTTOM), this.gp1.connected(this.gp2));
+    t.checkExpect(pb.connected(2, PackedBoard.RIGHT), this.gp3.connected(this.gp7));
+    t.checkExpect(pb.connected(10, PackedBoard.RIGHT), true);
+    t.checkExpect(pb.connected(12, PackedBoard.TOP), false);
+    // rotating agrees with LightEmAll.rotate
+    pb.rotate(2);
+    this.game1.rotate(this.gp3);
+    t.checkExpect(pb.tiles[2], (byte) this.gp3.pack());
+    t.checkExpect(PackedBoard.rotateWires(PackedBoard.BOTTOM), PackedBoard.LEFT);
+    t.checkExpect(PackedBoard.opposite(PackedBoard.TOP), PackedBoard.BOTTOM);
+    // unpacking writes back into the GamePieces
+    pb.set(0, PackedBoard.POWERED, true);
+    pb.unpack(this.board1);
+    t.checkExpect(this.gp1.powered(), true);
+    t.checkConstructorException(new IllegalArgumentException("Invalid height or width"),
+        "PackedBoard", 0, 4);
+  }
+
+  // returns which tiles of the given packed board are reachable from the given tile
+  ArrayList<Boolean> reachable(PackedBoard pb, int from) {
+    ArrayList<Boolean> seen = new ArrayList<Boolean>(Collections.nCopies(pb.tiles.length, false));
+    ArrayList<Integer> worklist = new ArrayList<Integer>(Arrays.asList(from));
+    seen.set(from, true);
+    for (int k = 0; k < worklist.size(); k++) {
+      int i = worklist.get(k);
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        int n = pb.neighbor(i, d);
+        if (pb.connected(i, d) && !seen.get(n)) {
+          seen.set(n, true);
+          worklist.add(n);
+        }
+      }
+    }
+    return seen;
+  }
+
+  // returns which nodes of the given game are powered
+  ArrayList<Boolean> poweredNodes(LightEmAll game) {
+    ArrayList<Boolean> powered = new ArrayList<Boolean>();
+    for (GamePiece gp : game.nodes) {
+      powered.add(gp.powered());
+    }
+    return powered;
+  }
+
+  // test updatePower
+  void testUpdatePower(Tester t) {
+    reset();
+    // falls back to bfs when there is no power tree yet
+    this.game1.rotate(this.gp1);
+    this.game1.updatePower(this.gp1);
+    t.checkExpect(this.gp1.powered(), false);
+    t.checkExpect(this.gp2.powered(), true);
+    // turning gp1 back reconnects it
+    this.game1.rotate(this.gp1);
+    this.game1.rotate(this.gp1);
+    this.game1.rotate(this.gp1);
+    this.game1.updatePower(this.gp1);
+    t.checkExpect(this.gp1.powered(), true);
+    // turning the middle of a branch cuts off everything below it
+    this.game1.rotate(this.gp10);
+    this.game1.updatePower(this.gp10);
+    t.checkExpect(this.gp10.powered(), false);
+    t.checkExpect(this.gp9.powered(), false);
+    t.checkExpect(this.gp11.powered(), true);
+
+    // matches a full flood after every rotation and station move of a larger game
+    LightEmAll game = new LightEmAll(new Utils().makeBoard(9, 7), new Random(3));
+    Random moves = new Random(7);
+    ArrayList<String> keys = new ArrayList<String>(Arrays.asList("up", "down", "left", "right"));
+    boolean same = true;
+    for (int k = 0; k < 500; k++) {
+      if (moves.nextInt(5) == 0) {
+        game.onKeyEvent(keys.get(moves.nextInt(4)));
+      }
+      else {
+        GamePiece g = game.nodes.get(moves.nextInt(game.nodes.size()));
+        game.rotate(g);
+        game.updatePower(g);
+      }
+      ArrayList<Boolean> expected = this.reachable(game.pack(),
+          game.powerCol * game.height + game.powerRow);
+      same = same && this.poweredNodes(game).equals(expected)
+          && game.poweredCount == Collections.frequency(expected, true);
+    }
+    t.checkExpect(same, true);
+  }
+
+  // test PackedEdges
+  void testPackedEdges(Tester t) {
+    reset();
+    // packing keeps the weight and index apart and orders by weight first
+    long p = PackedEdges.pack(-5, 7);
+    t.checkExpect(PackedEdges.weight(p), -5);
+    t.checkExpect(PackedEdges.edge(p), 7);
+    t.checkExpect(PackedEdges.pack(-5, 7) < PackedEdges.pack(-4, 0), true);
+    t.checkExpect(PackedEdges.pack(3, 1) < PackedEdges.pack(3, 2), true);
+    // edge indices on a board of height 4
+    t.checkExpect(PackedEdges.from(21), 10);
+    t.checkExpect(PackedEdges.to(20, 4), 14);
+    t.checkExpect(PackedEdges.to(21, 4), 11);
+    // draws the same weights, in the same order, as loEdges
+    long[] edges = PackedEdges.make(2, 2, new Random(5));
+    ArrayList<Edge> objects = this.game3.loEdges(new Random(5));
+    t.checkExpect(edges.length, 4);
+    t.checkExpect(PackedEdges.weight(edges[0]), objects.get(0).weight);
+    t.checkExpect(PackedEdges.weight(edges[1]), objects.get(1).weight);
+    t.checkExpect(PackedEdges.weight(edges[2]), objects.get(2).weight);
+    t.checkExpect(PackedEdges.weight(edges[3]), objects.get(3).weight);
+    // the third edge joins node 1 to its right neighbor, node 3
+    t.checkExpect(PackedEdges.edge(edges[2]), 2);
+    t.checkExpect(objects.get(2).fromNode, this.gp02);
+    t.checkExpect(objects.get(2).toNode, this.gp04);
+    PackedEdges.sort(edges);
+    new Utils().sortEdges(objects);
+    t.checkExpect(PackedEdges.weight(edges[0]), objects.get(0).weight);
+    t.checkExpect(PackedEdges.weight(edges[3]), objects.get(3).weight);
+    // kruskal keeps edges until they form a spanning tree
+    long[] tree = PackedEdges.kruskal(2, 2, edges);
+    t.checkExpect(tree.length, 3);
+    t.checkExpect(tree[0], edges[0]);
+    // the radix sort agrees with Arrays.sort on large inputs
+    long[] big = PackedEdges.make(60, 60, new Random(11));
+    long[] expected = big.clone();
+    Arrays.sort(expected);
+    PackedEdges.sort(big);
+    t.checkExpect(Arrays.equals(big, expected), true);
+    // and the tree spans the whole board
+    UnionFind uf = new UnionFind(3600);
+    for (long e : PackedEdges.kruskal(60, 60, big)) {
+      uf.union(PackedEdges.from(PackedEdges.edge(e)), PackedEdges.to(PackedEdges.edge(e), 60));
+    }
+    t.checkExpect(uf.sets, 1);
+  }
+
+  // test HeadlessLightEmAll
+  void testHeadless(Tester t) {
+    reset();
+    // builds the same board as the GamePiece game given the same Random
+    LightEmAll game = new LightEmAll(new Utils().makeBoard(12, 9), new Random(21));
+    HeadlessLightEmAll headless = new HeadlessLightEmAll(12, 9, new Random(21));
+    t.checkExpect(headless.board.tiles, game.pack().tiles);
+    t.checkExpect(headless.poweredCount, game.poweredCount);
+    t.checkExpect(headless.gameWon(), game.gameWon());
+    t.checkExpect(PackedEdges.from(PackedEdges.edge(headless.mst[0])),
+        game.index(game.mst.get(0).fromNode));
+    t.checkExpect(PackedEdges.to(PackedEdges.edge(headless.mst[0]), 9),
+        game.index(game.mst.get(0).toNode));
+    // clicking rotates, powers and counts like the game
+    headless.click(3, 4);
+    game.onMouseClicked(new Posn(3 * 60 + 30, 4 * 60 + 30));
+    t.checkExpect(headless.board.tiles, game.pack().tiles);
+    t.checkExpect(headless.countClicks, 1);
+    // boards far past the window limit
+    HeadlessLightEmAll big = new HeadlessLightEmAll(300, 200, new Random(1));
+    t.checkExpect(big.board.tiles.length, 60000);
+    t.checkExpect(big.mst.length, 59999);
+    t.checkExpect(big.board.has(0, PackedBoard.STATION | PackedBoard.POWERED), true);
+    t.checkConstructorException(new IllegalArgumentException("Invalid height or width"),
+        "HeadlessLightEmAll", 1, 5, new Random());
+  }
+
+  // returns true if the given edge indices form a spanning tree of a width x height grid
+  boolean spansGrid(ArrayList<Integer> edges, int width, int height) {
+    UnionFind uf = new UnionFind(width * height);
+    boolean adjacent = true;
+    for (int e : edges) {
+      int from = PackedEdges.from(e);
+      int to = PackedEdges.to(e, height);
+      adjacent = adjacent && to < width * height
+          && ((e & 1) == 1 ? to % height != 0 : true);
+      uf.union(from, to);
+    }
+    return adjacent && edges.size() == width * height - 1 && uf.sets == 1;
+  }
 
-    t.checkExpect(board3.get(0).get(1).top, false);
-    t.checkExpect(board3.get(0).get(1).bottom, true);
-    t.checkExpect(board3.get(0).get(1).left, false);
-    t.checkExpect(board3.get(0).get(1).right, false);
+  // test the maze generators
+  void testGenerators(Tester t) {
+    reset();
+    ArrayList<IMazeGenerator> generators = new ArrayList<IMazeGenerator>(Arrays.asList(
+        new KruskalGenerator(), new PrimGenerator(), new WilsonGenerator(),
+        new EllerGenerator()));
+    for (IMazeGenerator gen : generators) {
+      for (int size = 2; size < 9; size++) {
+        ArrayList<Integer> edges = new ArrayList<Integer>();
+        gen.generate(size, 11 - size, new Random(size), e -> edges.add(e));
+        t.checkExpect(this.spansGrid(edges, size, 11 - size), true);
+      }
+      // a generated game is wired by boardComplete along the generated tree,
+      // so shuffled or not it has two wire ends per edge
+      LightEmAll game = new LightEmAll(7, 6, gen);
+      t.checkExpect(game.mst.size(), 41);
+      int ends = 0;
+      for (GamePiece gp : game.nodes) {
+        ends += Integer.bitCount(gp.pack() & PackedBoard.WIRES);
+      }
+      t.checkExpect(ends, 82);
+      HeadlessLightEmAll headless = new HeadlessLightEmAll(7, 6, new Random(1), gen);
+      t.checkExpect(headless.mst.length, 41);
+      t.checkExpect(PackedEdges.weight(headless.mst[40]), 40);
+    }
+    // kruskal's generator picks the same tree as LightEmAll.kruskal
+    LightEmAll game = new LightEmAll(new Utils().makeBoard(6, 5), new Random(4));
+    ArrayList<Integer> edges = new ArrayList<Integer>();
+    new KruskalGenerator().generate(6, 5, new Random(4), e -> edges.add(e));
+    t.checkExpect(edges.size(), game.mst.size());
+    t.checkExpect(PackedEdges.from(edges.get(7)), game.index(game.mst.get(7).fromNode));
+    t.checkExpect(PackedEdges.to(edges.get(7), 5), game.index(game.mst.get(7).toNode));
+    t.checkExpect(PackedEdges.between(3, 8, 5), 6);
+    t.checkExpect(PackedEdges.between(8, 3, 5), 6);
+    t.checkExpect(PackedEdges.between(4, 3, 5), 7);
+  }
 
-    t.checkExpect(board3.get(1).get(0).top, true);
-    t.checkExpect(board3.get(1).get(0).bottom, false);
-    t.checkExpect(board3.get(1).get(0).left, false);
-    t.checkExpect(board3.get(1).get(0).right, true);
+  // test BoruvkaGenerator
+  void testBoruvka(Tester t) {
+    reset();
+    ArrayList<Integer> serial = new ArrayList<Integer>();
+    ArrayList<Integer> parallel = new ArrayList<Integer>();
+    new BoruvkaGenerator(new ForkJoinPool(1)).generate(150, 130, new Random(8),
+        e -> serial.add(e));
+    new BoruvkaGenerator(new ForkJoinPool(4)).generate(150, 130, new Random(8),
+        e -> parallel.add(e));
+    t.checkExpect(this.spansGrid(serial, 150, 130), true);
+    // the same tree in the same order whatever the number of threads
+    t.checkExpect(parallel, serial);
+    // which is the minimum spanning tree kruskal finds for the same weights
+    long seed = new Random(8).nextLong();
+    long[] weighted = PackedEdges.make(150, 130, new Random());
+    for (int k = 0; k < weighted.length; k++) {
+      int e = PackedEdges.edge(weighted[k]);
+      weighted[k] = PackedEdges.pack(BoruvkaGenerator.weight(seed, e), e);
+    }
+    PackedEdges.sort(weighted);
+    ArrayList<Integer> kruskal = new ArrayList<Integer>();
+    for (long e : PackedEdges.kruskal(150, 130, weighted)) {
+      kruskal.add(PackedEdges.edge(e));
+    }
+    Collections.sort(kruskal);
+    ArrayList<Integer> sorted = new ArrayList<Integer>(serial);
+    Collections.sort(sorted);
+    t.checkExpect(sorted, kruskal);
+    // small boards and games
+    for (int size = 2; size < 9; size++) {
+      ArrayList<Integer> edges = new ArrayList<Integer>();
+      new BoruvkaGenerator().generate(size, 11 - size, new Random(size), e -> edges.add(e));
+      t.checkExpect(this.spansGrid(edges, size, 11 - size), true);
+    }
+    t.checkExpect(new LightEmAll(5, 5, new BoruvkaGenerator()).mst.size(), 24);
+  }
 
-    t.checkExpect(board3.get(1).get(1).top, true);
-    t.checkExpect(board3.get(1).get(1).bottom, false);
-    t.checkExpect(board3.get(1).get(1).left, true);
-    t.checkExpect(board3.get(1).get(1).right, false);
+  // test TileImageCache
+  void testTileImageCache(Tester t) {
+    reset();
+    TileImageCache cache = new TileImageCache();
+    WorldImage station = cache.get(this.gp11, 60, 10, TileImageCache.POWERED);
+    // the same shape, color and size is only drawn once
+    t.checkExpect(cache.get(this.gp11, 60, 10, TileImageCache.POWERED) == station, true);
+    t.checkExpect(cache.get(this.gp7, 60, 10, TileImageCache.POWERED) == station, false);
+    t.checkExpect(cache.get(this.gp7, 60, 10, TileImageCache.POWERED)
+        == cache.get(this.gp7, 60, 10, TileImageCache.POWERED), true);
+    t.checkExpect(cache.get(this.gp2, 60, 10, TileImageCache.UNPOWERED)
+        == cache.get(this.gp6, 60, 10, TileImageCache.UNPOWERED), true);
+    t.checkExpect(cache.get(this.gp2, 60, 10, TileImageCache.UNPOWERED)
+        == cache.get(this.gp6, 60, 10, TileImageCache.POWERED), false);
+    // the powered flag is given by the color, not the cache key
+    this.gp6.setPowered(true);
+    t.checkExpect(cache.get(this.gp2, 60, 10, TileImageCache.UNPOWERED)
+        == cache.get(this.gp6, 60, 10, TileImageCache.UNPOWERED), true);
+    t.checkExpect(cache.count, 4);
+    // every game draws from the one shared cache
+    this.game1.makeScene();
+    t.checkExpect(this.game1.images == TileImageCache.SHARED, true);
+    t.checkExpect(this.game1.images == this.game2.images, true);
+    t.checkExpect(new LightEmAll(3, 3, 5L).images == this.game1.images, true);
+    t.checkExpect(cache.get(this.gp11, 60, 10, TileImageCache.POWERED) == station, true);
+    // every size is kept beside the others, so zooming back builds nothing again
+    WorldImage small = cache.get(this.gp2, 30, 5, TileImageCache.UNPOWERED);
+    t.checkExpect(cache.count, 5);
+    t.checkExpect(cache.size, 30);
+    t.checkExpect(cache.sizes.size(), 2);
+    t.checkExpect(cache.get(this.gp11, 60, 10, TileImageCache.POWERED) == station, true);
+    t.checkExpect(cache.get(this.gp2, 30, 5, TileImageCache.UNPOWERED) == small, true);
+    t.checkExpect(cache.get(this.gp2, 30, 6, TileImageCache.UNPOWERED) == small, false);
+    t.checkExpect(cache.count, 6);
+  }
+
+  // test makeScene: the view is kept, and only the tiles that changed are painted
+  void testMakeScene(Tester t) {
+    reset();
+    LightEmAll game = new LightEmAll(new Utils().makeBoard(6, 5), new Random(2));
+    // the background, the view and the three counters
+    WorldScene first = game.makeScene();
+    t.checkExpect(first.count, 1 + 1 + 3);
+    t.checkExpect(game.painted, 30);
+    ComputedPixelImage view = game.view;
+    // nothing changed, so nothing is painted
+    t.checkExpect(game.makeScene().count, 1 + 1 + 3);
+    t.checkExpect(game.painted, 0);
+    t.checkExpect(game.view == view, true);
+    // a click paints the clicked tile and the tiles whose power changed
+    ArrayList<Boolean> before = this.poweredNodes(game);
+    game.onMouseClicked(new Posn(30, 30));
+    ArrayList<Boolean> after = this.poweredNodes(game);
+    int changed = 1;
+    for (int i = 1; i < before.size(); i++) {
+      if (!before.get(i).equals(after.get(i))) {
+        changed++;
+        t.checkExpect(game.dirty.get(i), true);
+      }
+    }
+    t.checkExpect(game.dirty.get(0), true);
+    t.checkExpect(game.dirtyCount, changed);
+    game.makeScene();
+    t.checkExpect(game.view == view, true);
+    t.checkExpect(game.painted, changed);
+    t.checkExpect(game.dirtyCount, 0);
+    t.checkExpect(game.dirty.isEmpty(), true);
+    // rotating the same tile twice only paints it once
+    game.rotate(game.nodes.get(7));
+    game.rotate(game.nodes.get(7));
+    t.checkExpect(game.dirtyCount, 1);
+    // a full bfs starts over, reusing the dirty set
+    BitSet dirty = game.dirty;
+    game.bfs();
+    t.checkExpect(game.view, null);
+    game.makeScene();
+    t.checkExpect(game.view == view, false);
+    t.checkExpect(game.painted, 30);
+    t.checkExpect(game.dirty == dirty, true);
+    t.checkExpect(game.dirty.isEmpty(), true);
+    t.checkExpect(game.dirtyCount, 0);
+    // the last scene adds its text on top
+    t.checkExpect(game.lastScene("YOU WON!").count, 1 + 1 + 3 + 1);
+    // the pixels of a tile are painted once and shared, and match its image:
+    // a dark tile with a black border and wires from the middle to its sides
+    GamePiece up = new GamePiece(0, 0, false, false, true, false, false, false);
+    Color[] pixels = TileImageCache.SHARED.pixels(up, 12, 2, TileImageCache.POWERED);
+    t.checkExpect(TileImageCache.SHARED.pixels(up, 12, 2, TileImageCache.POWERED) == pixels,
+        true);
+    t.checkExpect(pixels.length, 144);
+    t.checkExpect(pixels[0], Color.BLACK);
+    t.checkExpect(pixels[1 * 12 + 5], Color.yellow);
+    t.checkExpect(pixels[5 * 12 + 6], Color.yellow);
+    t.checkExpect(pixels[9 * 12 + 5], Color.DARK_GRAY);
+    t.checkExpect(pixels[5 * 12 + 9], Color.DARK_GRAY);
+    // the station is a star in the middle
+    up.setPowerStation(true);
+    t.checkExpect(TileImageCache.SHARED.pixels(up, 60, 10, TileImageCache.POWERED)[30 * 60 + 30],
+        new Color(0, 255, 255));
+    t.checkExpect(GamePiece.inStar(0, 0, 20), true);
+    t.checkExpect(GamePiece.inStar(0, -19, 20), true);
+    t.checkExpect(GamePiece.inStar(15, 15, 20), false);
+  }
+
+  // test the view: tileAt, pan and zoom
+  void testView(Tester t) {
+    reset();
+    // a 4 x 4 board fits in the window at full size
+    t.checkExpect(this.game1.viewWidth(), 240);
+    t.checkExpect(this.game1.viewHeight(), 240);
+    t.checkExpect(this.game1.tileAt(new Posn(20, 80)), 1);
+    t.checkExpect(this.game1.tileAt(new Posn(200, 150)), 14);
+    t.checkExpect(this.game1.tileAt(new Posn(240, 10)), -1);
+    t.checkExpect(this.game1.tileAt(new Posn(10, 300)), -1);
+    t.checkExpect(this.game1.tileAt(new Posn(-1, 10)), -1);
+    // clicking off the board rotates nothing
+    this.game1.onMouseClicked(new Posn(10, 300));
+    t.checkExpect(this.game1.countClicks, 0);
+    t.checkExpect(this.gp1.bottom(), true);
+    // zooming out shows the whole board in a corner of the window
+    this.game1.onKeyEvent("-");
+    t.checkExpect(this.game1.tileSize, 30);
+    t.checkExpect(this.game1.tileAt(new Posn(100, 100)), 15);
+    t.checkExpect(this.game1.tileAt(new Posn(130, 10)), -1);
+    t.checkExpect(this.game1.panCol, 0);
+
+    // a board larger than the window scrolls
+    LightEmAll big = new LightEmAll(100, 80, new KruskalGenerator());
+    t.checkExpect(big.viewWidth(), 1200);
+    t.checkExpect(big.viewHeight(), 840);
+    t.checkExpect(big.tileAt(new Posn(1199, 839)), 19 * 80 + 13);
+    big.onKeyEvent("d");
+    big.onKeyEvent("s");
+    t.checkExpect(big.panCol, 10);
+    t.checkExpect(big.panRow, 7);
+    t.checkExpect(big.tileAt(new Posn(0, 0)), 10 * 80 + 7);
+    // scrolling stops at the edge of the board
+    for (int k = 0; k < 20; k++) {
+      big.onKeyEvent("d");
+      big.onKeyEvent("s");
+    }
+    t.checkExpect(big.panCol, 80);
+    t.checkExpect(big.panRow, 66);
+    t.checkExpect(big.tileAt(new Posn(1199, 839)), 99 * 80 + 79);
+    // zooming keeps the middle of the view in the middle
+    big.onKeyEvent("-");
+    t.checkExpect(big.tileSize, 30);
+    t.checkExpect(big.viewCols(), 40);
+    t.checkExpect(big.panCol, 60);
+    t.checkExpect(big.panRow, 52);
+    big.onKeyEvent("=");
+    big.onKeyEvent("=");
+    t.checkExpect(big.tileSize, 60);
+    for (int k = 0; k < 10; k++) {
+      big.onKeyEvent("-");
+    }
+    t.checkExpect(big.tileSize, 6);
+    t.checkExpect(big.tileAt(new Posn(7, 13)), (big.panCol + 1) * 80 + big.panRow + 2);
+    // only the tiles in view are painted, and only the ones in view again
+    big.makeScene();
+    t.checkExpect(big.painted, 100 * 80);
+    big.onMouseClicked(new Posn(7, 13));
+    t.checkExpect(big.countClicks, 1);
+    int changed = big.dirtyCount;
+    big.makeScene();
+    t.checkExpect(changed >= 1, true);
+    t.checkExpect(big.painted, changed);
+    // at 6 pixels the whole board is in view, at 60 the far corner is not
+    t.checkExpect(big.viewCols(), 200);
+    big.zoom(-10);
+    big.pan(-100, -100);
+    t.checkExpect(big.view, null);
+    t.checkExpect(big.makeScene().count, 1 + 1 + 3);
+    t.checkExpect(big.painted, 20 * 14);
+    big.rotate(big.nodes.get(99 * 80 + 79));
+    big.makeScene();
+    t.checkExpect(big.painted, 0);
+    t.checkException(new IllegalArgumentException("Invalid height or width"),
+        new Utils(), "makeBoard", 2001, 5, 2000, 2000);
+  }
+
+  // test Solver
+  void testSolver(Tester t) {
+    reset();
+    this.game1.rotate(this.gp3);
+    this.game1.rotate(this.gp7);
+    this.game1.bfs();
+    t.checkExpect(this.game1.gameWon(), false);
+    t.checkExpect(Solver.solve(this.game1), true);
+    t.checkExpect(this.game1.gameWon(), true);
+    t.checkExpect(Solver.solve(this.game3), true);
+    t.checkExpect(this.game3.gameWon(), true);
+    for (int k = 0; k < 6; k++) {
+      LightEmAll game = new LightEmAll(new Utils().makeBoard(4 + k, 9 - k), new Random(k));
+      t.checkExpect(Solver.solve(game), true);
+      t.checkExpect(game.gameWon(), true);
+    }
+    // large boards: a solution is a rotation of every tile that powers them all
+    HeadlessLightEmAll big = new HeadlessLightEmAll(60, 40, new Random(3));
+    int[] wires = Solver.solve(big.board);
+    for (int i = 0; i < wires.length; i++) {
+      int w = big.board.wires(i);
+      while (w != wires[i]) {
+        w = PackedBoard.rotateWires(w);
+        big.board.rotate(i);
+      }
+    }
+    big.bfs();
+    t.checkExpect(big.gameWon(), true);
+    // boards with no perfect wiring: every wire must stay on the board,
+    // and four elbows can only close a loop
+    PackedBoard crosses = new PackedBoard(2, 2);
+    PackedBoard elbows = new PackedBoard(2, 2);
+    for (int i = 0; i < 4; i++) {
+      crosses.set(i, PackedBoard.WIRES, true);
+      elbows.set(i, PackedBoard.LEFT | PackedBoard.TOP, true);
+    }
+    // without a station nothing is powered, so neither can be won
+    t.checkExpect(Solver.solve(crosses), null);
+    t.checkExpect(Solver.solve(elbows), null);
+    // but crosses around a station are already won, and are their own solution
+    crosses.set(0, PackedBoard.STATION, true);
+    t.checkExpect(Solver.solve(crosses), new int[] {15, 15, 15, 15});
+    LightEmAll won = new LightEmAll(new Utils().makeBoard(2, 2), new Random(1));
+    for (GamePiece g : won.nodes) {
+      g.unpack(g.pack() | PackedBoard.WIRES);
+    }
+    won.bfs();
+    t.checkExpect(won.gameWon(), true);
+    t.checkExpect(Solver.solve(won), true);
+    t.checkExpect(won.gameWon(), true);
+    won.computePar(Solver.solve(won.pack()));
+    t.checkExpect(won.par, 0);
+    t.checkExpect(won.hints == null, false);
+    t.checkExpect(won.hint(), -1);
+    // which leave the game unchanged
+    LightEmAll stuck = new LightEmAll(this.board3);
+    t.checkExpect(Solver.solve(stuck), false);
+  }
+
+  // test PortfolioSolver and the strategies it races
+  void testPortfolioSolver(Tester t) {
+    reset();
+    PortfolioSolver portfolio = new PortfolioSolver();
+    for (int k = 0; k < 4; k++) {
+      LightEmAll game = new LightEmAll(new Utils().makeBoard(7, 6), new Random(k));
+      t.checkExpect(portfolio.solve(game), true);
+      t.checkExpect(game.gameWon(), true);
+      t.checkExpect(portfolio.nanos.length, 3);
+      t.checkExpect(portfolio.report().split("\n").length, 3);
+      t.checkExpect(portfolio.report().contains(" (won)"), true);
+    }
+    // every strategy solves on its own, and leaves the board it was given alone
+    HeadlessLightEmAll big = new HeadlessLightEmAll(40, 30, new Random(4));
+    byte[] tiles = big.board.tiles.clone();
+    ArrayList<ISolveStrategy> strategies = new ArrayList<ISolveStrategy>(Arrays.asList(
+        new PropagationStrategy(), new StationDfsStrategy(), new RestartStrategy(new Random(2), 4)));
+    for (ISolveStrategy strategy : strategies) {
+      PortfolioSolver alone = new PortfolioSolver(
+          new ArrayList<ISolveStrategy>(Arrays.asList(strategy)));
+      int[] wires = alone.solve(big.board);
+      t.checkExpect(Solver.connects(big.board, wires), true);
+      t.checkExpect(alone.winner, 0);
+    }
+    t.checkExpect(big.board.tiles, tiles);
+    t.checkExpect(new StationDfsStrategy().order(this.game1.pack())[0], 10);
+    // a raised flag or a spent guess limit stops the search
+    Solver stopped = new Solver(big.board);
+    stopped.guessLimit = 0;
+    t.checkExpect(stopped.search(1), 0);
+    t.checkExpect(stopped.stopped, true);
+    t.checkExpect(new PropagationStrategy().solve(big.board, new AtomicBoolean(true)), null);
+    t.checkExpect(new RestartStrategy(new Random(), 1).solve(big.board,
+        new AtomicBoolean(true)), null);
+    // a board with no solution
+    PackedBoard crosses = new PackedBoard(2, 2);
+    for (int i = 0; i < 4; i++) {
+      crosses.set(i, PackedBoard.WIRES, true);
+    }
+    t.checkExpect(portfolio.solve(crosses), null);
+    // unless it is already won
+    crosses.set(3, PackedBoard.STATION, true);
+    t.checkExpect(portfolio.solve(crosses), new int[] {15, 15, 15, 15});
+  }
+
+  // test Solver.countSolutions and UniqueGenerator
+  void testUniqueness(Tester t) {
+    reset();
+    t.checkExpect(Solver.countSolutions(new HeadlessLightEmAll(4, 4, new Random(0)).board, 2), 1);
+    PackedBoard twice = new HeadlessLightEmAll(4, 4, new Random(34)).board;
+    t.checkExpect(Solver.countSolutions(twice, 1), 1);
+    t.checkExpect(Solver.countSolutions(twice, 2), 2);
+    t.checkExpect(Solver.countSolutions(twice, 100), 2);
+    PackedBoard crosses = new PackedBoard(2, 2);
+    for (int i = 0; i < 4; i++) {
+      crosses.set(i, PackedBoard.WIRES, true);
+    }
+    t.checkExpect(Solver.countSolutions(crosses, 2), 0);
+    // regenerating until the board is unique
+    UniqueGenerator unique = new UniqueGenerator(new KruskalGenerator(), 100);
+    ArrayList<Integer> edges = new ArrayList<Integer>();
+    unique.generate(20, 20, new Random(6), e -> edges.add(e));
+    t.checkExpect(this.spansGrid(edges, 20, 20), true);
+    t.checkExpect(unique.unique, true);
+    int[] tree = new int[edges.size()];
+    for (int k = 0; k < tree.length; k++) {
+      tree[k] = edges.get(k);
+    }
+    PackedBoard solved = UniqueGenerator.wired(20, 20, tree);
+    t.checkExpect(Solver.countSolutions(solved, 2), 1);
+    t.checkExpect(Solver.connects(solved, Solver.solve(solved)), true);
+    LightEmAll game = new LightEmAll(8, 8, new UniqueGenerator(new WilsonGenerator(), 100));
+    t.checkExpect(Solver.countSolutions(game.pack(), 2), 1);
+    // which gives up after the given number of tries
+    UniqueGenerator once = new UniqueGenerator(new KruskalGenerator(), 1);
+    once.generate(4, 4, new Random(34), e -> { });
+    t.checkExpect(once.tries, 1);
+    t.checkExpect(once.unique, false);
+    t.checkConstructorException(new IllegalArgumentException("Invalid number of tries"),
+        "UniqueGenerator", new KruskalGenerator(), 0);
+  }
+
+  // test par: computePar, rotationsToSolve and the click budget
+  void testPar(Tester t) {
+    reset();
+    LightEmAll game = new LightEmAll(new Utils().makeBoard(9, 7), new Random(12));
+    t.checkExpect(game.toSolve, game.par);
+    t.checkExpect(game.clickBudget, 63 * 4);
+    int sum = 0;
+    for (int i = 0; i < game.nodes.size(); i++) {
+      int clicks = game.rotationsToSolve(i);
+      int wires = game.nodes.get(i).pack() & PackedBoard.WIRES;
+      // symmetric tiles never need a full half turn
+      if (wires == PackedBoard.WIRES) {
+        t.checkExpect(clicks, 0);
+      }
+      if (wires == (PackedBoard.LEFT | PackedBoard.RIGHT)
+          || wires == (PackedBoard.TOP | PackedBoard.BOTTOM)) {
+        t.checkExpect(clicks < 2, true);
+      }
+      sum += clicks;
+    }
+    t.checkExpect(game.par, sum);
+    // clicks move toSolve by one towards or three away from a tile's solution
+    GamePiece off = null;
+    GamePiece on = null;
+    for (GamePiece gp : game.nodes) {
+      int clicks = game.rotationsToSolve(game.index(gp));
+      int wires = gp.pack() & PackedBoard.WIRES;
+      if (clicks == 2) {
+        off = gp;
+      }
+      if (clicks == 0 && Integer.bitCount(wires) % 2 == 1) {
+        on = gp;
+      }
+    }
+    game.onMouseClicked(new Posn(off.col * 60 + 30, off.row * 60 + 30));
+    t.checkExpect(game.toSolve, game.par - 1);
+    game.onMouseClicked(new Posn(on.col * 60 + 30, on.row * 60 + 30));
+    t.checkExpect(game.toSolve, game.par + 2);
+    t.checkExpect(game.par, sum);
+    // rotating every tile the fewest times solves the board in toSolve clicks
+    int left = game.toSolve;
+    int clicked = 0;
+    for (int i = 0; i < game.nodes.size(); i++) {
+      for (int k = game.rotationsToSolve(i); k > 0; k--) {
+        game.rotate(game.nodes.get(i));
+        clicked++;
+      }
+    }
+    game.bfs();
+    t.checkExpect(clicked, left);
+    t.checkExpect(game.toSolve, 0);
+    t.checkExpect(game.gameWon(), true);
+    // boards given as they are count par towards the solver's solution
+    t.checkExpect(this.game4.par, 0);
+    t.checkExpect(this.game4.solutionWires, null);
+    this.game1.rotate(this.gp3);
+    this.game1.bfs();
+    LightEmAll given = new LightEmAll(this.board1);
+    t.checkExpect(given.solutionWires == null, false);
+    t.checkExpect(given.par > 0, true);
+    // generated games allow a multiple of par
+    LightEmAll generated = new LightEmAll(10, 8);
+    t.checkExpect(generated.clickBudget, LightEmAll.PAR_BUDGET * generated.par);
+    t.checkExpect(generated.par <= 80 * 3, true);
+    // but never fewer than a full turn of a tile, even when dealt solved
+    LightEmAll dealtSolved = new LightEmAll(2, 2, 65L);
+    t.checkExpect(dealtSolved.par, 0);
+    t.checkExpect(dealtSolved.clickBudget, LightEmAll.MIN_BUDGET);
+    dealtSolved.onMouseClicked(new Posn(30, 30));
+    t.checkExpect(dealtSolved.countClicks < dealtSolved.clickBudget, true);
+  }
+
+  // test BoardFile
+  void testBoardFile(Tester t) {
+    reset();
+    try {
+      Path file = Files.createTempFile("board", ".sav");
+      file.toFile().deleteOnExit();
+      LightEmAll game = new LightEmAll(new Utils().makeBoard(9, 7), new Random(3));
+      game.onMouseClicked(new Posn(90, 150));
+      game.onKeyEvent("down");
+      BoardFile.save(game, file);
+      t.checkExpect(Files.size(file), 40L + 32 + 16);
+      LightEmAll loaded = BoardFile.load(file);
+      t.checkExpect(loaded.pack().tiles, game.pack().tiles);
+      t.checkExpect(loaded.countClicks, 1);
+      t.checkExpect(loaded.clickBudget, game.clickBudget);
+      t.checkExpect(loaded.powerRow, game.powerRow);
+      t.checkExpect(loaded.powerCol, game.powerCol);
+      t.checkExpect(loaded.par, game.par);
+      t.checkExpect(loaded.toSolve, game.toSolve);
+      t.checkExpect(loaded.par == loaded.toSolve, false);
+      t.checkExpect(loaded.solutionWires, game.solutionWires);
+      t.checkExpect(loaded.poweredCount, game.poweredCount);
+      // a save that fails halfway leaves the file saved before as it was, and no
+      // half written file beside it
+      byte[] before = Files.readAllBytes(file);
+      LightEmAll broken = new LightEmAll(new Utils().makeBoard(9, 7), new Random(4));
+      broken.solutionWires = new int[10];
+      String failed = "";
+      try {
+        BoardFile.save(broken, file);
+      }
+      catch (ArrayIndexOutOfBoundsException e) {
+        failed = "failed";
+      }
+      t.checkExpect(failed, "failed");
+      t.checkExpect(Files.readAllBytes(file), before);
+      try (java.util.stream.Stream<Path> beside = Files.list(file.getParent())) {
+        t.checkExpect(beside.anyMatch(p -> p.getFileName().toString()
+            .startsWith(file.getFileName().toString()) && !p.equals(file)), false);
+      }
+      // a board with no solution saves none
+      BoardFile.save(this.game4, file);
+      t.checkExpect(BoardFile.load(file).solutionWires, null);
+      // huge boards are read and written a tile at a time
+      HeadlessLightEmAll big = new HeadlessLightEmAll(600, 500, new Random(2));
+      BoardFile mapped = BoardFile.create(file, 600, 500);
+      for (int i = 0; i < big.board.tiles.length; i++) {
+        mapped.setWires(i, big.board.wires(i));
+        mapped.setRotations(i, i % 4);
+      }
+      BoardFile reopened = BoardFile.open(file, false);
+      t.checkExpect(reopened.width, 600);
+      t.checkExpect(reopened.wires(299999), big.board.wires(299999));
+      t.checkExpect(reopened.rotations(299999), 3);
+      PackedBoard board = reopened.toPackedBoard();
+      boolean same = true;
+      for (int i = 0; i < board.tiles.length; i++) {
+        same &= board.wires(i) == big.board.wires(i);
+      }
+      t.checkExpect(same, true);
+      t.checkExpect(board.has(0, PackedBoard.STATION), true);
+      t.checkExpect(Files.size(file), 40L + 150000 + 75000);
+      Files.write(file, new byte[] {1, 2, 3});
+      String error = "";
+      try {
+        BoardFile.open(file, false);
+      }
+      catch (IllegalArgumentException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "Not a board file");
+      // boards smaller than a game's, and stations off the board, are refused
+      try {
+        BoardFile.create(file, 1, 5);
+      }
+      catch (IllegalArgumentException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "Invalid height or width");
+      BoardFile.create(file, 3, 2).buffer.putInt(BoardFile.STATION_COL, 3);
+      try {
+        BoardFile.open(file, false);
+      }
+      catch (IllegalArgumentException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "Invalid power station");
+      // the keys leave the game as it is when the file cannot be used
+      t.checkExpect(game.loadFrom(file), null);
+      t.checkExpect(game.saveTo(file.getParent()), false);
+      t.checkExpect(game.loadFrom(file.resolveSibling("missing.sav")), null);
+      t.checkExpect(game.saveTo(file), true);
+      t.checkExpect(game.loadFrom(file).par, game.par);
+    }
+    catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test MoveJournal and JournalReplay
+  void testMoveJournal(Tester t) {
+    reset();
+    // the same seed deals the same game
+    t.checkExpect(new LightEmAll(9, 7, 42L).pack().tiles, new LightEmAll(9, 7, 42L).pack().tiles);
+    LightEmAll game = new LightEmAll(9, 7, 42L);
+    java.io.ByteArrayOutputStream written = new java.io.ByteArrayOutputStream();
+    game.journal = new MoveJournal(game.width, game.height, game.seed, written);
+    Random clicks = new Random(1);
+    for (int k = 0; k < 300; k++) {
+      game.onMouseClicked(new Posn(clicks.nextInt(540), clicks.nextInt(420)));
+      game.onKeyEvent(MoveJournal.DIRECTIONS[clicks.nextInt(4)]);
+      game.onKeyEvent("=");
+    }
+    // off-board clicks, failed station moves and zooming are not moves
+    game.onMouseClicked(new Posn(-5, 10));
+    t.checkExpect(game.journal.count < 600, true);
+    t.checkExpect(game.journal.count > 300, true);
+    t.checkExpect(written.size(), 24 + game.journal.length);
+    t.checkExpect(game.journal.length < 2 * game.journal.count, true);
+    MoveJournal read = MoveJournal.read(written.toByteArray());
+    t.checkExpect(read.moves(), game.journal.moves());
+    t.checkExpect(read.seed, 42L);
+    // replaying ends where the game did
+    JournalReplay replay = new JournalReplay(read, 64);
+    replay.replayAll();
+    t.checkExpect(replay.game.pack().tiles, game.pack().tiles);
+    t.checkExpect(replay.game.countClicks, 300);
+    t.checkExpect(replay.game.poweredCount, game.poweredCount);
+    t.checkExpect(replay.game.toSolve, game.toSolve);
+    t.checkExpect(replay.snapshots.size(), 1 + read.count / 64);
+    // seeking back and forth ends where replaying from the start does
+    JournalReplay fresh = new JournalReplay(read, 1000);
+    fresh.seek(200);
+    replay.seek(200);
+    t.checkExpect(replay.game.pack().tiles, fresh.game.pack().tiles);
+    t.checkExpect(replay.game.countClicks, fresh.game.countClicks);
+    replay.seek(130);
+    replay.seek(200);
+    t.checkExpect(replay.game.pack().tiles, fresh.game.pack().tiles);
+    t.checkExpect(replay.game.powerCol, fresh.game.powerCol);
+    t.checkExpect(replay.game.powerRow, fresh.game.powerRow);
+    t.checkConstructorException(new IllegalArgumentException("Invalid snapshot interval"),
+        "JournalReplay", read, 0);
+    String error = "";
+    try {
+      MoveJournal.read(new byte[30]);
+    }
+    catch (IllegalArgumentException e) {
+      error = e.getMessage();
+    }
+    t.checkExpect(error, "Not a move journal");
+  }
+
+  // test MoveHistory, undo and redo
+  void testUndo(Tester t) {
+    reset();
+    MoveHistory ring = new MoveHistory(3);
+    ring.record(2);
+    ring.record(5);
+    t.checkExpect(ring.undo(), 5);
+    t.checkExpect(ring.redo(), 5);
+    ring.record(8);
+    ring.record(10);
+    // the oldest move is dropped once the ring is full
+    t.checkExpect(ring.undo(), 10);
+    t.checkExpect(ring.undo(), 8);
+    t.checkExpect(ring.undo(), 5);
+    t.checkExpect(ring.undoable, 0);
+    t.checkExpect(ring.redo(), 5);
+    ring.record(12);
+    t.checkExpect(ring.redoable, 0);
+    t.checkException(new IllegalStateException("Nothing to redo"), ring, "redo");
+    t.checkConstructorException(new IllegalArgumentException("Invalid capacity"),
+        "MoveHistory", 0);
+    // undoing every move brings the game back to where it started
+    LightEmAll game = new LightEmAll(12, 10, 5L);
+    PackedBoard start = game.pack();
+    int powered = game.poweredCount;
+    Random clicks = new Random(2);
+    for (int k = 0; k < 500; k++) {
+      game.onMouseClicked(new Posn(clicks.nextInt(720), clicks.nextInt(600)));
+      game.onKeyEvent(MoveJournal.DIRECTIONS[clicks.nextInt(4)]);
+    }
+    PackedBoard end = game.pack();
+    int moves = game.history.undoable;
+    for (int k = 0; k < moves; k++) {
+      game.onKeyEvent("u");
+    }
+    t.checkExpect(game.pack().tiles, start.tiles);
+    t.checkExpect(game.poweredCount, powered);
+    t.checkExpect(game.toSolve, game.par);
+    t.checkExpect(game.countClicks, 500);
+    game.onKeyEvent("u");
+    t.checkExpect(game.pack().tiles, start.tiles);
+    // and redoing them back to where it ended
+    for (int k = 0; k < moves; k++) {
+      game.onKeyEvent("y");
+    }
+    t.checkExpect(game.pack().tiles, end.tiles);
+    game.onKeyEvent("y");
+    t.checkExpect(game.pack().tiles, end.tiles);
+    // undo and redo are journaled and replayed
+    LightEmAll copy = new LightEmAll(12, 10, 5L);
+    copy.journal = new MoveJournal(12, 10, 5L);
+    for (int k = 0; k < 200; k++) {
+      copy.onMouseClicked(new Posn(clicks.nextInt(720), clicks.nextInt(600)));
+      copy.onKeyEvent(k % 3 == 0 ? "u" : k % 7 == 0 ? "y" : "right");
+    }
+    JournalReplay replay = new JournalReplay(copy.journal, 50);
+    replay.replayAll();
+    t.checkExpect(replay.game.pack().tiles, copy.pack().tiles);
+    replay.seek(120);
+    replay.replayAll();
+    t.checkExpect(replay.game.pack().tiles, copy.pack().tiles);
+    // undoing into a solved board wins the game, as a click would
+    LightEmAll solving = new LightEmAll(6, 5, 9L);
+    while (solving.hint() >= 0) {
+      solving.click(solving.hint());
+    }
+    t.checkExpect(solving.outcome(), "YOU WON!");
+    // a corner is never a cross, so turning it breaks the win
+    solving.onMouseClicked(new Posn(30, 30));
+    t.checkExpect(solving.outcome(), null);
+    solving.onKeyEvent("u");
+    t.checkExpect(solving.gameWon(), true);
+    t.checkExpect(solving.outcome(), "YOU WON!");
+    // and redoing a move after a click went past the budget loses it
+    solving.countClicks = solving.clickBudget + 1;
+    solving.onKeyEvent("y");
+    t.checkExpect(solving.outcome(), "GAME OVER!");
+    // a game is only lost once a click went past the budget
+    solving.countClicks = solving.clickBudget;
+    t.checkExpect(solving.outcome(), null);
+  }
+
+  // test deterministic seeding: LightEmAll.stream and the seeded constructors
+  void testSeeding(Tester t) {
+    reset();
+    t.checkExpect(LightEmAll.stream(9L, 2).nextLong(), LightEmAll.stream(9L, 2).nextLong());
+    t.checkExpect(LightEmAll.stream(9L, 1).nextLong() == LightEmAll.stream(9L, 2).nextLong(),
+        false);
+    // a seed deals one game, with or without GamePieces
+    LightEmAll game = new LightEmAll(15, 11, 77L);
+    t.checkExpect(new LightEmAll(15, 11, 77L).pack().tiles, game.pack().tiles);
+    t.checkExpect(new HeadlessLightEmAll(15, 11, 77L).board.tiles, game.pack().tiles);
+    t.checkExpect(Arrays.equals(new LightEmAll(15, 11, 78L).pack().tiles, game.pack().tiles),
+        false);
+    for (IMazeGenerator gen : new ArrayList<IMazeGenerator>(Arrays.asList(new PrimGenerator(),
+        new WilsonGenerator(), new EllerGenerator()))) {
+      t.checkExpect(new HeadlessLightEmAll(12, 9, gen, 5L).board.tiles,
+          new LightEmAll(12, 9, gen, 5L).pack().tiles);
+    }
+    // whatever the number of threads generating it
+    t.checkExpect(new LightEmAll(40, 30, new BoruvkaGenerator(new ForkJoinPool(1)), 3L)
+        .pack().tiles, new LightEmAll(40, 30, new BoruvkaGenerator(new ForkJoinPool(3)), 3L)
+        .pack().tiles);
+    // unseeded games still get a seed of their own, which deals them again
+    LightEmAll dealt = new LightEmAll(6, 5);
+    t.checkExpect(new LightEmAll(6, 5, dealt.seed).pack().tiles, dealt.pack().tiles);
+    t.checkExpect(new Edge(this.gp1, this.gp2).weight, 0);
+  }
+
+  // test GameSession and GameServer
+  void testGameServer(Tester t) {
+    reset();
+    GameSession session = new GameSession();
+    t.checkExpect(session.handle("CLICK 30 30"), "ERR No game");
+    t.checkExpect(session.handle("NEW 6 5 12"), "OK 12");
+    LightEmAll game = new LightEmAll(6, 5, 12L);
+    t.checkExpect(session.game.pack().tiles, game.pack().tiles);
+    game.onMouseClicked(new Posn(90, 150));
+    String playing = game.gameWon() ? " WON" : " PLAYING";
+    t.checkExpect(session.handle("click 90 150"),
+        "OK 1 " + game.clickBudget + " " + game.poweredCount + playing);
+    // rotating a full turn changes nothing, but every turn is a click, undone and
+    // journaled like one
+    for (int k = 0; k < 4; k++) {
+      t.checkExpect(session.handle("ROTATE 1 2").startsWith("OK " + (k + 2) + " "
+          + game.clickBudget + " "), true);
+    }
+    t.checkExpect(session.game.pack().tiles, game.pack().tiles);
+    t.checkExpect(session.game.history.undoable, 5);
+    for (int k = 0; k < 4; k++) {
+      session.handle("KEY u");
+    }
+    t.checkExpect(session.game.pack().tiles, game.pack().tiles);
+    t.checkExpect(session.handle("KEY u"), "OK 5 " + game.clickBudget + " "
+        + session.game.poweredCount + (session.game.gameWon() ? " WON" : " PLAYING"));
+    t.checkExpect(session.game.pack().tiles, new LightEmAll(6, 5, 12L).pack().tiles);
+    String state = session.handle("STATE");
+    t.checkExpect(state.startsWith("OK 6 5 5 " + game.clickBudget + " "), true);
+    t.checkExpect(state.substring(state.lastIndexOf(' ') + 1).length(), 30);
+    t.checkExpect(session.handle("KEY r"), "ERR Unsupported key");
+    t.checkExpect(session.handle("ROTATE 6 0"), "ERR No such tile");
+    t.checkExpect(session.handle("CLICK 5"), "ERR Bad arguments");
+    t.checkExpect(session.handle("NEW 101 5"), "ERR Invalid height or width");
+    t.checkExpect(session.handle("JUMP"), "ERR Unknown command");
+    t.checkExpect(session.handle("KEY"), "ERR Bad arguments");
+    t.checkExpect(session.handle("CLICK 1 2 3"), "ERR Bad arguments");
+    // a big board is played through the view: clicks off it are refused, and
+    // the view scrolls and zooms
+    t.checkExpect(session.handle("NEW 50 50 3"), "OK 3");
+    t.checkExpect(session.handle("CLICK 1500 100"), "ERR No tile in view there");
+    t.checkExpect(session.game.countClicks, 0);
+    t.checkExpect(session.handle("KEY d").startsWith("OK 0 "), true);
+    t.checkExpect(session.game.panCol, 10);
+    t.checkExpect(session.handle("KEY -").startsWith("OK 0 "), true);
+    t.checkExpect(session.game.tileSize, 30);
+    t.checkExpect(session.handle("CLICK 1190 10").startsWith("OK 1 "), true);
+    // tiles out of view are rotated by their column and row
+    t.checkExpect(session.handle("ROTATE 49 49").startsWith("OK 2 "), true);
+    t.checkExpect(session.game.history.undoable, 2);
+    // a click past the budget loses the game, which the status tells
+    session.game.countClicks = session.game.clickBudget;
+    t.checkExpect(session.handle("ROTATE 49 49").endsWith(" LOST"), true);
+    t.checkExpect(session.handle("STATE").contains(" LOST "), true);
+    t.checkExpect(session.handle("QUIT"), null);
+    // sessions over a local socket
+    GameServer server = new GameServer(0);
+    server.start();
+    try (java.net.Socket client = new java.net.Socket(java.net.InetAddress.getLoopbackAddress(),
+        server.port())) {
+      java.io.InputStream in = client.getInputStream();
+      GameSession.writeLine(client.getOutputStream(), "NEW 6 5 12");
+      t.checkExpect(GameSession.readLine(in), "OK 12");
+      GameSession.writeLine(client.getOutputStream(), "CLICK 90 150");
+      t.checkExpect(GameSession.readLine(in),
+          "OK 1 " + game.clickBudget + " " + game.poweredCount + playing);
+      t.checkExpect(server.open.get(), 1);
+      // overlong lines are cut short and refused
+      GameSession.writeLine(client.getOutputStream(), "STATE " + "x".repeat(1000));
+      t.checkExpect(GameSession.readLine(in), "ERR Line too long");
+      GameSession.writeLine(client.getOutputStream(), "QUIT");
+      t.checkExpect(GameSession.readLine(in), null);
+    }
+    catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+    // closing the server closes the connections of its sessions
+    try (java.net.Socket client = new java.net.Socket(java.net.InetAddress.getLoopbackAddress(),
+        server.port())) {
+      java.io.InputStream in = client.getInputStream();
+      GameSession.writeLine(client.getOutputStream(), "NEW 6 5 12");
+      t.checkExpect(GameSession.readLine(in), "OK 12");
+      server.close();
+      t.checkExpect(GameSession.readLine(in), null);
+    }
+    catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+    // a connection accepted as the server closes starts no session
+    t.checkExpect(server.serve(new java.net.Socket()), false);
+  }
+
+  // test ConcurrentBoard and BoardSnapshot, with players rotating at once
+  void testConcurrentBoard(Tester t) {
+    reset();
+    LightEmAll game = new LightEmAll(12, 10, 8L);
+    ConcurrentBoard shared = new ConcurrentBoard(game.pack());
+    BoardSnapshot first = shared.latest.get();
+    t.checkExpect(first.rotations, 0L);
+    t.checkExpect(first.poweredCount, game.poweredCount);
+    t.checkExpect(first.won, game.gameWon());
+    t.checkExpect(shared.rotate(5), 1L);
+    t.checkExpect(shared.rotate(5), 2L);
+    t.checkExpect(shared.snapshot().tile(5) & PackedBoard.WIRES, PackedBoard.rotateWires(
+        PackedBoard.rotateWires(game.pack().wires(5))));
+    t.checkExpect(shared.latest.get().rotations, 2L);
+    // the solved board, shared, is won
+    LightEmAll solved = new LightEmAll(12, 10, 8L);
+    for (int i = 0; i < solved.nodes.size(); i++) {
+      for (int k = solved.rotationsToSolve(i); k > 0; k--) {
+        solved.rotate(solved.nodes.get(i));
+      }
+    }
+    t.checkExpect(new ConcurrentBoard(solved.pack()).latest.get().won, true);
+    // players rotate at random, and each rotates tile 0 before tile 1 every so often,
+    // while a reader takes snapshots
+    int players = 4;
+    int moves = 20000;
+    int size = game.nodes.size();
+    ConcurrentBoard board = new ConcurrentBoard(game.pack());
+    long[][] versions = new long[players][moves];
+    int[][] tiles = new int[players][moves];
+    ArrayList<Thread> threads = new ArrayList<Thread>();
+    for (int p = 0; p < players; p++) {
+      int player = p;
+      threads.add(new Thread(() -> {
+        Random rand = new Random(player);
+        for (int m = 0; m < moves; m++) {
+          tiles[player][m] = m % 10 < 2 ? m % 10 : 2 + rand.nextInt(size - 2);
+          versions[player][m] = board.rotate(tiles[player][m]);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    boolean consistent = true;
+    boolean monotonic = true;
+    long last = 0;
+    PackedBoard start = game.pack();
+    for (int k = 0; k < 200; k++) {
+      BoardSnapshot snapshot = board.snapshot();
+      long sum = 0;
+      for (int i = 0; i < size; i++) {
+        int wires = start.wires(i);
+        for (long r = snapshot.version(i) % 4; r > 0; r--) {
+          wires = PackedBoard.rotateWires(wires);
+        }
+        consistent = consistent && (snapshot.tile(i) & PackedBoard.WIRES) == wires;
+        sum += snapshot.version(i);
+      }
+      // tile 0 is always rotated first, so no instant has more rotations of tile 1
+      consistent = consistent && snapshot.rotations == sum
+          && snapshot.version(0) >= snapshot.version(1)
+          && snapshot.version(0) <= snapshot.version(1) + players;
+      monotonic = monotonic && snapshot.rotations >= last
+          && board.latest.get().rotations >= snapshot.rotations;
+      last = snapshot.rotations;
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      }
+      catch (InterruptedException e) {
+        t.checkExpect(e, null);
+      }
+    }
+    t.checkExpect(consistent, true);
+    t.checkExpect(monotonic, true);
+    // every rotation took effect once: the versions each tile handed out are 1 to
+    // the number of its rotations, with none repeated or lost
+    BoardSnapshot end = board.snapshot();
+    t.checkExpect(end.rotations, (long) players * moves);
+    t.checkExpect(board.latest.get(), end);
+    int[] counts = new int[size];
+    boolean[][] handed = new boolean[size][players * moves + 1];
+    boolean unique = true;
+    for (int p = 0; p < players; p++) {
+      for (int m = 0; m < moves; m++) {
+        counts[tiles[p][m]]++;
+        unique = unique && !handed[tiles[p][m]][(int) versions[p][m]];
+        handed[tiles[p][m]][(int) versions[p][m]] = true;
+      }
+    }
+    t.checkExpect(unique, true);
+    for (int i = 0; i < size; i++) {
+      t.checkExpect(end.version(i), (long) counts[i]);
+      int wires = start.wires(i);
+      for (int r = counts[i] % 4; r > 0; r--) {
+        wires = PackedBoard.rotateWires(wires);
+      }
+      t.checkExpect(end.tile(i) & PackedBoard.WIRES, wires);
+    }
+    // power agrees with the game's own search on the same tiles
+    LightEmAll copy = new LightEmAll(12, 10, 8L);
+    copy.restore(end.board(), 0);
+    t.checkExpect(end.poweredCount, copy.poweredCount);
+    t.checkExpect(end.won, copy.gameWon());
+    // a reader stalled halfway through a snapshot holds no player back, and its
+    // snapshot still sees the rotations made meanwhile, before and after where
+    // it stalled
+    java.util.concurrent.CountDownLatch parked = new java.util.concurrent.CountDownLatch(1);
+    java.util.concurrent.CountDownLatch resume = new java.util.concurrent.CountDownLatch(1);
+    java.util.concurrent.atomic.AtomicBoolean park =
+        new java.util.concurrent.atomic.AtomicBoolean();
+    ConcurrentBoard stalling = new ConcurrentBoard(game.pack()) {
+      void collect(long[] into) {
+        for (int i = 0; i < into.length; i++) {
+          into[i] = this.cells.get(i);
+          if (i == into.length / 2 && park.getAndSet(false)) {
+            parked.countDown();
+            try {
+              resume.await();
+            }
+            catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        }
+      }
+    };
+    park.set(true);
+    BoardSnapshot[] taken = new BoardSnapshot[1];
+    Thread reader = new Thread(() -> taken[0] = stalling.snapshot());
+    reader.start();
+    Thread player = new Thread(() -> {
+      stalling.rotate(0);
+      stalling.rotate(size - 1);
+      stalling.rotate(size - 1);
+    });
+    try {
+      parked.await();
+      player.start();
+      player.join(10000);
+      t.checkExpect(player.isAlive(), false);
+      t.checkExpect(reader.isAlive(), true);
+      resume.countDown();
+      reader.join();
+    }
+    catch (InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(taken[0].version(0), 1L);
+    t.checkExpect(taken[0].version(size - 1), 2L);
+    t.checkExpect(taken[0].rotations, 3L);
+    t.checkExpect(stalling.collecting, false);
+  }
+
+  // test PersistentBoard
+  void testPersistentBoard(Tester t) {
+    reset();
+    LightEmAll game = new LightEmAll(40, 30, 6L);
+    PackedBoard packed = game.pack();
+    PersistentBoard board = new PersistentBoard(game);
+    t.checkExpect(board.size(), 1200);
+    t.checkExpect(board.station, packed.index(game.powerCol, game.powerRow));
+    boolean same = true;
+    for (int i = 0; i < board.size(); i++) {
+      same = same && board.tile(i) == (packed.tiles[i] & ~PackedBoard.POWERED);
+    }
+    t.checkExpect(same, true);
+    t.checkException(new IndexOutOfBoundsException("No such tile: 1200"), board, "tile", 1200);
+    // a rotation makes a new board and leaves the old one as it was
+    PersistentBoard rotated = board.rotate(700);
+    t.checkExpect(rotated.wires(700), PackedBoard.rotateWires(board.wires(700)));
+    t.checkExpect(board.wires(700), packed.wires(700));
+    t.checkExpect(rotated.wires(701), board.wires(701));
+    // sharing every chunk of 32 tiles but the one it changed
+    t.checkExpect(rotated.sharedChunks(board), 1200 / 32);
+    t.checkExpect(board.sharedChunks(board), 1200 / 32 + 1);
+    t.checkExpect(board.setWires(5, board.wires(5)), board);
+    PersistentBoard turned = rotated.rotate(700).rotate(700).rotate(700);
+    t.checkExpect(turned.toPackedBoard().tiles, board.toPackedBoard().tiles);
+    // the station moves along with its bit
+    PersistentBoard moved = board.moveStation(0);
+    t.checkExpect(moved.station, 0);
+    t.checkExpect(moved.tile(0) & PackedBoard.STATION, PackedBoard.STATION);
+    t.checkExpect(moved.tile(board.station) & PackedBoard.STATION, board.station == 0
+        ? PackedBoard.STATION : 0);
+    t.checkExpect(board.tile(board.station) & PackedBoard.STATION, PackedBoard.STATION);
+    // back to the game, powered
+    LightEmAll other = new LightEmAll(40, 30, 6L);
+    other.onMouseClicked(new Posn(30, 30));
+    rotated.restore(other);
+    t.checkExpect(other.countClicks, 1);
+    game.rotate(game.nodes.get(700));
+    game.bfs();
+    t.checkExpect(other.pack().tiles, game.pack().tiles);
+    t.checkExpect(other.poweredCount, game.poweredCount);
+    moved.restore(other);
+    t.checkExpect(other.powerCol, 0);
+    t.checkExpect(other.powerRow, 0);
+    t.checkException(new IllegalArgumentException("Invalid height or width"), board,
+        "restore", new LightEmAll(30, 40, 6L));
+    // a board small enough for one chunk, and one that needs three levels
+    LightEmAll small = new LightEmAll(4, 5, 2L);
+    PersistentBoard tiny = new PersistentBoard(small).rotate(19);
+    small.rotate(small.nodes.get(19));
+    t.checkExpect(tiny.toPackedBoard().tiles[19], (byte) (small.pack().tiles[19]
+        & ~PackedBoard.POWERED));
+    PackedBoard big = new HeadlessLightEmAll(120, 100, 3L).board;
+    for (int i = 0; i < big.tiles.length; i++) {
+      big.set(i, PackedBoard.POWERED, false);
+    }
+    PersistentBoard large = new PersistentBoard(big).rotate(11999).rotate(0);
+    big.rotate(11999);
+    big.rotate(0);
+    t.checkExpect(large.toPackedBoard().tiles, big.tiles);
+    t.checkExpect(large.sharedChunks(new PersistentBoard(big)), 0);
+  }
+
+  // test hints: HintIndex, hint and showHint
+  void testHints(Tester t) {
+    reset();
+    LightEmAll game = new LightEmAll(15, 12, 31L);
+    HintIndex hints = game.hints;
+    int unsolved = 0;
+    for (int i = 0; i < game.nodes.size(); i++) {
+      t.checkExpect(hints.solved(i, game.nodes.get(i).pack() & PackedBoard.WIRES),
+          game.rotationsToSolve(i) == 0);
+      if (game.rotationsToSolve(i) != 0) {
+        unsolved++;
+      }
+    }
+    t.checkExpect(hints.count, unsolved);
+    // the station is the root of the solution, and every other tile is a step
+    // further than its neighbor towards it
+    int station = game.index(game.board.get(game.powerCol).get(game.powerRow));
+    t.checkExpect(hints.distance(station), 0);
+    boolean deeper = true;
+    for (Edge e : game.mst) {
+      int from = game.index(e.fromNode);
+      int to = game.index(e.toNode);
+      deeper = deeper && Math.abs(hints.distance(from) - hints.distance(to)) == 1;
+    }
+    t.checkExpect(deeper, true);
+    // following the hints solves the board, the nearest tile first, and every hint
+    // is powered as soon as it is solved
+    int last = 0;
+    boolean nearest = true;
+    boolean powered = true;
+    while (game.hint() >= 0) {
+      int i = game.hint();
+      for (int k = 0; k < game.nodes.size(); k++) {
+        nearest = nearest && (game.rotationsToSolve(k) == 0
+            || hints.distance(k) >= hints.distance(i));
+      }
+      nearest = nearest && hints.distance(i) >= last;
+      last = hints.distance(i);
+      for (int k = game.rotationsToSolve(i); k > 0; k--) {
+        game.click(i);
+      }
+      powered = powered && game.nodes.get(i).powered();
+    }
+    t.checkExpect(nearest, true);
+    t.checkExpect(powered, true);
+    t.checkExpect(game.gameWon(), true);
+    t.checkExpect(hints.count, 0);
+    // a straight turned half way round is still solved, and a turn of anything else
+    // is not
+    for (int i = 0; i < game.nodes.size(); i++) {
+      GamePiece g = game.nodes.get(i);
+      game.rotate(g);
+      game.rotate(g);
+      int wires = g.pack() & PackedBoard.WIRES;
+      t.checkExpect(hints.solved(i, wires), wires == 5 || wires == 10 || wires == 15);
+      game.rotate(g);
+      game.rotate(g);
+    }
+    t.checkExpect(hints.count, 0);
+    game.rotate(game.nodes.get(40));
+    game.rotate(game.nodes.get(41));
+    int crosses = ((game.nodes.get(40).pack() & PackedBoard.WIRES) == 15 ? 1 : 0)
+        + ((game.nodes.get(41).pack() & PackedBoard.WIRES) == 15 ? 1 : 0);
+    t.checkExpect(hints.count, 2 - crosses);
+    // moving the station brings the distances up to date in the same index, with
+    // the hint asked for next as near the new station as a fresh index would give
+    LightEmAll moved = new LightEmAll(15, 12, 31L);
+    HintIndex kept = moved.hints;
+    while (moved.hint() >= 0) {
+      moved.click(moved.hint());
+    }
+    t.checkExpect(moved.moveStation("down") || moved.moveStation("right"), true);
+    t.checkExpect(moved.hints, kept);
+    t.checkExpect(moved.hint(), -1);
+    int root = moved.index(moved.board.get(moved.powerCol).get(moved.powerRow));
+    t.checkExpect(moved.hints.distance(root), 0);
+    t.checkExpect(moved.hints.distance(station), 1);
+    moved.undo();
+    t.checkExpect(moved.hints, kept);
+    moved.rotate(moved.nodes.get(root));
+    t.checkExpect(moved.hint(), root);
+    t.checkExpect(moved.hints.distance(station), 0);
+    // and walking the station across the board, a hint after every step, keeps
+    // every distance and the hint as a fresh index would have them
+    LightEmAll walked = new LightEmAll(15, 12, 31L);
+    kept = walked.hints;
+    String[] steps = {"down", "down", "right", "right", "right", "up", "left", "down",
+        "down", "down", "right", "up", "up", "up", "up", "left", "left", "left"};
+    boolean same = true;
+    for (String s : steps) {
+      walked.moveStation(s);
+      HintIndex fresh = new HintIndex(walked.pack(), walked.solutionWires);
+      for (int i = 0; i < walked.nodes.size(); i++) {
+        same = same && walked.hints.distance(i) == fresh.distance(i);
+      }
+      int hint = walked.hint();
+      same = same && walked.hints.distance(hint) == fresh.distance(fresh.hint());
+      walked.click(hint);
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(walked.hints, kept);
+    // restoring a board indexes it again at once
+    walked.restore(moved.pack(), 0);
+    t.checkExpect(walked.hints == kept, false);
+    t.checkExpect(walked.hint(), root);
+    // shown on the next frame, until it is solved
+    LightEmAll shown = new LightEmAll(6, 5, 4L);
+    shown.makeScene();
+    shown.onKeyEvent("h");
+    t.checkExpect(shown.hinted, shown.hint());
+    t.checkExpect(shown.rotationsToSolve(shown.hinted) != 0, true);
+    t.checkExpect(shown.dirtyCount, 1);
+    t.checkExpect(this.game4.hint(), -1);
+    // a board as deep as it is long, with thousands of depths: a chain down from
+    // the station with every tenth tile turned
+    PackedBoard chain = new PackedBoard(1, 5000);
+    int[] solution = new int[5000];
+    for (int i = 0; i < 5000; i++) {
+      solution[i] = (i > 0 ? PackedBoard.TOP : 0) | (i < 4999 ? PackedBoard.BOTTOM : 0);
+      chain.tiles[i] = (byte) (i % 10 == 7 ? PackedBoard.rotateWires(solution[i]) : solution[i]);
+    }
+    chain.set(0, PackedBoard.STATION, true);
+    HintIndex deep = new HintIndex(chain, solution);
+    t.checkExpect(deep.leaves, 8192);
+    t.checkExpect(deep.distance(4321), 4321);
+    t.checkExpect(deep.count, 500);
+    t.checkExpect(deep.hint(), 7);
+    for (int i = 7; i < 4000; i += 10) {
+      deep.update(i, solution[i]);
+    }
+    t.checkExpect(deep.hint(), 4007);
+    deep.update(4999, PackedBoard.LEFT);
+    deep.update(4007, solution[4007]);
+    deep.update(4017, PackedBoard.rotateWires(PackedBoard.rotateWires(solution[4017])));
+    t.checkExpect(deep.hint(), 4027);
+    deep.update(200, PackedBoard.RIGHT);
+    t.checkExpect(deep.hint(), 200);
+  }
+
+  // test the bots and BotHarness
+  void testBotHarness(Tester t) {
+    reset();
+    t.checkConstructorException(new IllegalArgumentException("Invalid height or width"),
+        "BotHarness", 21, 5, 0L, 10, 1);
+    t.checkConstructorException(new IllegalArgumentException("Invalid number of games or threads"),
+        "BotHarness", 5, 5, 0L, 10, 0);
+    // the bots see the board as it is, and leave it as it was
+    LightEmAll game = new LightEmAll(6, 5, 3L);
+    PackedBoard before = game.pack();
+    int greedy = new GreedyBot().move(game);
+    t.checkExpect(game.pack().tiles, before.tiles);
+    t.checkExpect(game.toSolve, game.par);
+    t.checkExpect(greedy >= 0 && greedy < 30, true);
+    int random = new RandomBot().move(game);
+    t.checkExpect(random >= 0 && random < 30, true);
+    // the greedy bot makes the one click that powers the most tiles, when a click
+    // powers more than there are
+    int powered = game.poweredCount;
+    LightEmAll again = new LightEmAll(6, 5, 3L);
+    int most = powered;
+    for (GamePiece g : again.nodes) {
+      for (int k = 1; k <= 4; k++) {
+        again.rotate(g);
+        again.updatePower(g);
+        most = k == 1 ? Math.max(most, again.poweredCount) : most;
+      }
+    }
+    game.click(greedy);
+    t.checkExpect(game.poweredCount > powered, most > powered);
+    t.checkExpect(game.poweredCount == most || most == powered, true);
+    // the solver bot wins every game, with clicks to spare: par or close to it, as
+    // its solution may not be the one the game was dealt from
+    BotHarness harness = new BotHarness(6, 5, 100L, 24, 2);
+    try {
+      BotResult solved = harness.run(SolverBot::new);
+      t.checkExpect(solved.games, 24);
+      t.checkExpect(solved.wins, 24);
+      t.checkExpect(solved.moves, solved.clicks);
+      t.checkExpect(solved.budgetUsed() < 0.55, true);
+      BotResult played = harness.play(new SolverBot(), 100L);
+      t.checkExpect(played.clicks, (long) new LightEmAll(6, 5, 100L).par);
+      // seeds play the same games however many threads play them
+      BotResult one = new BotHarness(6, 5, 7L, 12, 1).run(RandomBot::new);
+      BotResult three = new BotHarness(6, 5, 7L, 12, 3).run(RandomBot::new);
+      t.checkExpect(three.wins, one.wins);
+      t.checkExpect(three.clicks, one.clicks);
+      t.checkExpect(one.budget, three.budget);
+      t.checkExpect(one.clicks <= one.budget, true);
+      BotResult greedyResult = new BotHarness(6, 5, 7L, 12, 3).run(GreedyBot::new);
+      t.checkExpect(greedyResult.winRate() >= one.winRate(), true);
+      t.checkExpect(greedyResult.nanosPerMove() > 0, true);
+      // a move is one click
+      t.checkExpect(greedyResult.moves, greedyResult.clicks);
+      // a game that fails fails the run, and so does running out of time
+      String error = "";
+      try {
+        harness.run(() -> null);
+      }
+      catch (IllegalStateException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "A game failed");
+      BotHarness slow = new BotHarness(6, 5, 0L, 1000000, 2);
+      slow.timeout = 0;
+      try {
+        slow.run(RandomBot::new);
+      }
+      catch (IllegalStateException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "Timed out after 0 s");
+    }
+    catch (InterruptedException e) {
+      t.checkExpect(e, null);
+    }
   }
 
   void testBigBang(Tester t) {
     reset();
     new Utils().boardComplete(edges5);
     LightEmAll world = game2;
-    int worldWidth = world.width * 60;
-    int worldHeight = world.height * 60 + 100;
+    int worldWidth = world.viewWidth();
+    int worldHeight = world.viewHeight() + 100;
     world.bigBang(worldWidth, worldHeight);
   }
 
 }
 
-
@@ -0,0 +1,77 @@
+// to represent the moves of a game that can be taken back and made again, in a
+// ring of ints that drops the oldest move once full, so it never grows past its
+// capacity; it starts small and doubles up to it, so a game that is hardly played
+// keeps a tiny history. A move is 4 bytes, encoded like a MoveJournal move: a
+// click, i.e. a quarter turn, as tile index * 2 and a station move as
+// direction * 2 + 1
+class MoveHistory {
+  static final int INITIAL = 16;
+  int capacity;
+  int[] moves;
+  // where the oldest move is
+  int start;
+  // how many moves can be taken back, and how many after them made again
+  int undoable;
+  int redoable;
+
+  // makes an empty history of at most the given number of moves
+  MoveHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Invalid capacity");
+    }
+    this.capacity = capacity;
+    this.moves = new int[Math.min(capacity, INITIAL)];
+  }
+
+  // returns a copy of this history that shares nothing with it
+  MoveHistory copy() {
+    MoveHistory copy = new MoveHistory(this.capacity);
+    copy.moves = this.moves.clone();
+    copy.start = this.start;
+    copy.undoable = this.undoable;
+    copy.redoable = this.redoable;
+    return copy;
+  }
+
+  // EFFECT: adds the given move, forgetting the moves taken back, and the oldest
+  // move if the history is full
+  void record(int move) {
+    if (this.undoable == this.moves.length && this.moves.length < this.capacity) {
+      int[] grown = new int[Math.min(this.capacity, this.moves.length * 2)];
+      for (int k = 0; k < this.undoable; k++) {
+        grown[k] = this.moves[(this.start + k) % this.moves.length];
+      }
+      this.moves = grown;
+      this.start = 0;
+    }
+    this.moves[(this.start + this.undoable) % this.moves.length] = move;
+    if (this.undoable == this.moves.length) {
+      this.start = (this.start + 1) % this.moves.length;
+    }
+    else {
+      this.undoable++;
+    }
+    this.redoable = 0;
+  }
+
+  // EFFECT: takes back the last move; returns it
+  int undo() {
+    if (this.undoable == 0) {
+      throw new IllegalStateException("Nothing to undo");
+    }
+    this.undoable--;
+    this.redoable++;
+    return this.moves[(this.start + this.undoable) % this.moves.length];
+  }
+
+  // EFFECT: makes the last move taken back again; returns it
+  int redo() {
+    if (this.redoable == 0) {
+      throw new IllegalStateException("Nothing to redo");
+    }
+    int move = this.moves[(this.start + this.undoable) % this.moves.length];
+    this.undoable++;
+    this.redoable--;
+    return move;
+  }
+}
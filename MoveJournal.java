@@ -0,0 +1,140 @@
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+// to represent the append-only journal of every move of a game: the clicked
+// tiles and the station moves, in order. With the board size and the seed the
+// game was dealt from, it replays the whole game. The format, numbers big-endian:
+//   magic "LEAJ", version, width, height (ints), seed (long)
+//   one varint per move: a click as tile index * 2, a station move as
+//   direction * 2 + 1, with directions indexed as in DIRECTIONS, and undo
+//   and redo as the directions UNDO and REDO
+// so a click takes 1 to 3 bytes on a board of up to 2 million tiles, and any
+// other move 1 byte
+class MoveJournal {
+  static final int MAGIC = 0x4C45414A;
+  static final int VERSION = 1;
+  // the station moves, in the clockwise order of the connector bits
+  static final String[] DIRECTIONS = {"left", "up", "right", "down"};
+  static final int UNDO = 4;
+  static final int REDO = 5;
+
+  int width;
+  int height;
+  long seed;
+  // the moves so far, encoded
+  byte[] bytes;
+  int length;
+  // how many moves there are
+  int count;
+  // where every move is also appended as it is made, or null
+  OutputStream out;
+
+  // makes an empty journal of the game of the given size dealt from the given seed
+  MoveJournal(int width, int height, long seed) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.bytes = new byte[64];
+  }
+
+  // makes an empty journal that also appends to the given stream, starting with
+  // the header
+  MoveJournal(int width, int height, long seed, OutputStream out) {
+    this(width, height, seed);
+    this.out = out;
+    DataOutputStream header = new DataOutputStream(out);
+    try {
+      header.writeInt(MAGIC);
+      header.writeInt(VERSION);
+      header.writeInt(width);
+      header.writeInt(height);
+      header.writeLong(seed);
+      header.flush();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // returns the journal written as the given bytes
+  static MoveJournal read(byte[] written) {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(written));
+    try {
+      if (written.length < 24 || in.readInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a move journal");
+      }
+      if (in.readInt() != VERSION) {
+        throw new IllegalArgumentException("Unsupported move journal version");
+      }
+      MoveJournal journal = new MoveJournal(in.readInt(), in.readInt(), in.readLong());
+      journal.bytes = Arrays.copyOfRange(written, 24, Math.max(written.length, 25));
+      journal.length = written.length - 24;
+      for (int k = 0; k < journal.length; k++) {
+        if (journal.bytes[k] >= 0) {
+          journal.count++;
+        }
+      }
+      return journal;
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // EFFECT: appends a click on the tile at the given node index
+  void click(int tile) {
+    this.append(tile * 2);
+  }
+
+  // EFFECT: appends a station move in the direction with the given index, or an
+  // undo or redo
+  void moveStation(int direction) {
+    this.append(direction * 2 + 1);
+  }
+
+  // EFFECT: appends the given encoded move, 7 bits a byte, lowest first, with the
+  // top bit set on every byte but the last
+  void append(int move) {
+    if (this.length + 5 > this.bytes.length) {
+      this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+    }
+    int start = this.length;
+    while (move >= 0x80) {
+      this.bytes[this.length++] = (byte) (move | 0x80);
+      move >>>= 7;
+    }
+    this.bytes[this.length++] = (byte) move;
+    this.count++;
+    if (this.out != null) {
+      try {
+        this.out.write(this.bytes, start, this.length - start);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  // returns every move, encoded, in order
+  int[] moves() {
+    int[] moves = new int[this.count];
+    int at = 0;
+    for (int k = 0; k < this.count; k++) {
+      int move = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = this.bytes[at++];
+        move |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      moves[k] = move;
+    }
+    return moves;
+  }
+}
@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+
+// to represent a LightEmAll board as one flat array of packed tiles,
+// indexed in the same column-major order as LightEmAll.nodes (col * height + row)
+class PackedBoard {
+  // connector bits, in clockwise order so a rotation is a 4-bit rotate
+  static final int LEFT = 1;
+  static final int TOP = 2;
+  static final int RIGHT = 4;
+  static final int BOTTOM = 8;
+  static final int WIRES = LEFT | TOP | RIGHT | BOTTOM;
+  // whether the power station is on the tile
+  static final int STATION = 16;
+  // whether the tile is powered
+  static final int POWERED = 32;
+
+  int width;
+  int height;
+  // one byte per tile: four connectors, the station flag and the powered flag
+  byte[] tiles;
+
+  // makes an empty width x height board
+  PackedBoard(int width, int height) {
+    if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    this.width = width;
+    this.height = height;
+    this.tiles = new byte[width * height];
+  }
+
+  // packs the given column-major board of GamePieces
+  PackedBoard(ArrayList<ArrayList<GamePiece>> board) {
+    this(board.size(), board.get(0).size());
+    for (int c = 0; c < this.width; c++) {
+      ArrayList<GamePiece> column = board.get(c);
+      for (int r = 0; r < this.height; r++) {
+        this.tiles[c * this.height + r] = (byte) column.get(r).pack();
+      }
+    }
+  }
+
+  // returns a copy of this board that shares nothing with it
+  PackedBoard copy() {
+    PackedBoard copy = new PackedBoard(this.width, this.height);
+    System.arraycopy(this.tiles, 0, copy.tiles, 0, this.tiles.length);
+    return copy;
+  }
+
+  // EFFECT: writes every packed tile back into the given board of GamePieces
+  void unpack(ArrayList<ArrayList<GamePiece>> board) {
+    for (int c = 0; c < this.width; c++) {
+      ArrayList<GamePiece> column = board.get(c);
+      for (int r = 0; r < this.height; r++) {
+        column.get(r).unpack(this.tiles[c * this.height + r]);
+      }
+    }
+  }
+
+  // returns the index of the tile at the given column and row
+  int index(int col, int row) {
+    return col * this.height + row;
+  }
+
+  // returns the column of the tile at the given index
+  int col(int i) {
+    return i / this.height;
+  }
+
+  // returns the row of the tile at the given index
+  int row(int i) {
+    return i % this.height;
+  }
+
+  // returns the connectors of the tile at the given index
+  int wires(int i) {
+    return this.tiles[i] & WIRES;
+  }
+
+  // returns true if the tile at the given index has every one of the given bits set
+  boolean has(int i, int bits) {
+    return (this.tiles[i] & bits) == bits;
+  }
+
+  // EFFECT: sets or clears the given bits of the tile at the given index
+  void set(int i, int bits, boolean on) {
+    if (on) {
+      this.tiles[i] |= bits;
+    }
+    else {
+      this.tiles[i] &= ~bits;
+    }
+  }
+
+  // EFFECT: rotates the tile at the given index clockwise, like LightEmAll.rotate
+  void rotate(int i) {
+    int t = this.tiles[i];
+    this.tiles[i] = (byte) ((t & ~WIRES) | rotateWires(t & WIRES));
+  }
+
+  // returns the given connectors rotated clockwise once
+  static int rotateWires(int wires) {
+    return ((wires << 1) | (wires >> 3)) & WIRES;
+  }
+
+  // returns the connector opposite to the given one
+  static int opposite(int dir) {
+    return rotateWires(rotateWires(dir));
+  }
+
+  // returns the connectors an edge of a spanning tree gives its two tiles, at the
+  // given columns and rows, when the board is completed: the from tile's in the low
+  // four bits, the to tile's in the next four. This is the one place the rule lives,
+  // so Utils.boardComplete and HeadlessLightEmAll wire their boards the same way
+  static int wiring(int fromCol, int fromRow, int toCol, int toRow) {
+    int wiring = 0;
+    if (fromRow < toRow) {
+      wiring |= RIGHT | LEFT << 4;
+    }
+    if (fromCol < toCol) {
+      wiring |= BOTTOM | TOP << 4;
+    }
+    else if (fromRow > toRow) {
+      wiring |= LEFT | RIGHT << 4;
+    }
+    else if (fromCol > toCol) {
+      wiring |= TOP | BOTTOM << 4;
+    }
+    return wiring;
+  }
+
+  // returns the index of the neighbor in the given direction, or -1 at the border
+  int neighbor(int i, int dir) {
+    int r = i % this.height;
+    if (dir == TOP) {
+      return r > 0 ? i - 1 : -1;
+    }
+    else if (dir == BOTTOM) {
+      return r < this.height - 1 ? i + 1 : -1;
+    }
+    else if (dir == LEFT) {
+      return i >= this.height ? i - this.height : -1;
+    }
+    else {
+      return i < this.tiles.length - this.height ? i + this.height : -1;
+    }
+  }
+
+  // returns true if the tile at the given index is connected to its neighbor
+  // in the given direction, i.e. both tiles have a wire facing each other
+  boolean connected(int i, int dir) {
+    int n = this.neighbor(i, dir);
+    return n >= 0 && (this.tiles[i] & dir) != 0 && (this.tiles[n] & opposite(dir)) != 0;
+  }
+}
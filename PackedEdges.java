@@ -0,0 +1,116 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// to represent the weighted edges of a width x height grid as primitive longs:
+// the weight is in the high 32 bits and the edge index in the low 32 bits,
+// so sorting the longs sorts the edges by weight, breaking ties by index.
+// The edge with index 2 * i joins node i to its right neighbor and the edge
+// with index 2 * i + 1 joins node i to its bottom neighbor, where nodes are
+// numbered col * height + row like LightEmAll.nodes
+class PackedEdges {
+  // arrays shorter than this are sorted with Arrays.sort instead of a radix sort
+  static final int RADIX_THRESHOLD = 1 << 12;
+
+  // returns the packed edge with the given weight and index
+  static long pack(int weight, int edge) {
+    return ((long) weight << 32) | (edge & 0xFFFFFFFFL);
+  }
+
+  // returns the weight of the given packed edge
+  static int weight(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  // returns the index of the given packed edge
+  static int edge(long packed) {
+    return (int) packed;
+  }
+
+  // returns the node the given edge index starts from
+  static int from(int edge) {
+    return edge >> 1;
+  }
+
+  // returns the node the given edge index leads to on a board of the given height
+  static int to(int edge, int height) {
+    return (edge & 1) == 0 ? (edge >> 1) + height : (edge >> 1) + 1;
+  }
+
+  // returns the index of the edge between the two given adjacent nodes
+  // on a board of the given height
+  static int between(int a, int b, int height) {
+    if (b == a + height || b == a + 1) {
+      return b == a + height ? 2 * a : 2 * a + 1;
+    }
+    else {
+      return a == b + height ? 2 * b : 2 * b + 1;
+    }
+  }
+
+  // creates all the possible edges of a width x height grid, drawing one weight
+  // per edge from the given random generator in the same order as LightEmAll.loEdges
+  static long[] make(int width, int height, RandomGenerator rand) {
+    long[] edges = new long[2 * width * height - width - height];
+    int k = 0;
+    for (int c = 0; c < width; c++) {
+      for (int r = 0; r < height; r++) {
+        int i = c * height + r;
+        if (c < width - 1) {
+          edges[k++] = pack(rand.nextInt(), 2 * i);
+        }
+        if (r < height - 1) {
+          edges[k++] = pack(rand.nextInt(), 2 * i + 1);
+        }
+      }
+    }
+    return edges;
+  }
+
+  // EFFECT: sorts the given packed edges by increasing weight, then index
+  static void sort(long[] edges) {
+    if (edges.length < RADIX_THRESHOLD) {
+      Arrays.sort(edges);
+      return;
+    }
+    // a least significant digit radix sort, 16 bits per pass, with the sign bit
+    // flipped so that the unsigned digit order matches the signed order
+    long[] from = edges;
+    long[] to = new long[edges.length];
+    int[] counts = new int[1 << 16];
+    for (int shift = 0; shift < 64; shift += 16) {
+      Arrays.fill(counts, 0);
+      for (long e : from) {
+        counts[(int) (((e ^ Long.MIN_VALUE) >>> shift) & 0xFFFF)]++;
+      }
+      int sum = 0;
+      for (int d = 0; d < counts.length; d++) {
+        int c = counts[d];
+        counts[d] = sum;
+        sum += c;
+      }
+      for (long e : from) {
+        to[counts[(int) (((e ^ Long.MIN_VALUE) >>> shift) & 0xFFFF)]++] = e;
+      }
+      long[] swap = from;
+      from = to;
+      to = swap;
+    }
+    // four passes leave the result back in the given array
+  }
+
+  // returns the edges of the minimum spanning tree of a width x height grid,
+  // in the order kruskal's algorithm adds them, given every edge sorted by weight
+  static long[] kruskal(int width, int height, long[] sorted) {
+    int size = width * height;
+    UnionFind representatives = new UnionFind(size);
+    long[] tree = new long[size - 1];
+    int count = 0;
+    for (int cursor = 0; cursor < sorted.length && count < tree.length; cursor++) {
+      int e = edge(sorted[cursor]);
+      if (representatives.union(to(e, height), from(e))) {
+        tree[count++] = sorted[cursor];
+      }
+    }
+    return tree;
+  }
+}
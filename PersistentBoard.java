@@ -0,0 +1,190 @@
+// to represent a board that never changes: a rotation makes a new board instead,
+// sharing all but one path with the old one. The packed tiles, in node index order,
+// sit in chunks of 32 at the leaves of a trie whose nodes have 32 children each,
+// so a rotation copies one chunk and at most one node per level: about 32 * 6
+// bytes and 32 * 4 references on a board of a million tiles, in O(log n) time.
+// Old versions stay valid, so searches, undo and what-if analysis can keep as
+// many of them as they like. The tiles carry the station but not power, which
+// depends on every tile at once
+class PersistentBoard {
+  static final int BITS = 5;
+  static final int BRANCH = 1 << BITS;
+  static final int MASK = BRANCH - 1;
+
+  final int width;
+  final int height;
+  // the root: a byte[] chunk of tiles if the board has at most 32 of them,
+  // else an Object[] of subtries
+  final Object root;
+  // how far to shift an index to find its child of the root
+  final int shift;
+  // the index of the station's tile, or -1 if there is none
+  final int station;
+
+  // makes the persistent board of the given packed board
+  PersistentBoard(PackedBoard board) {
+    this.width = board.width;
+    this.height = board.height;
+    int size = board.tiles.length;
+    int station = -1;
+    // the leaves, then every level above them until one node is left
+    Object[] level = new Object[(size + MASK) >>> BITS];
+    for (int k = 0; k < level.length; k++) {
+      byte[] chunk = new byte[BRANCH];
+      for (int j = 0; j < BRANCH && k * BRANCH + j < size; j++) {
+        chunk[j] = (byte) (board.tiles[k * BRANCH + j]
+            & (PackedBoard.WIRES | PackedBoard.STATION));
+        if ((chunk[j] & PackedBoard.STATION) != 0) {
+          station = k * BRANCH + j;
+        }
+      }
+      level[k] = chunk;
+    }
+    int shift = 0;
+    while (level.length > 1) {
+      Object[] above = new Object[(level.length + MASK) >>> BITS];
+      for (int k = 0; k < above.length; k++) {
+        Object[] node = new Object[BRANCH];
+        System.arraycopy(level, k * BRANCH, node, 0, Math.min(BRANCH, level.length - k * BRANCH));
+        above[k] = node;
+      }
+      level = above;
+      shift += BITS;
+    }
+    this.root = level[0];
+    this.shift = shift;
+    this.station = station;
+  }
+
+  // makes the persistent board of the given game's board
+  PersistentBoard(LightEmAll game) {
+    this(game.pack());
+  }
+
+  // makes the board of the given size with the given root and station
+  PersistentBoard(int width, int height, Object root, int shift, int station) {
+    this.width = width;
+    this.height = height;
+    this.root = root;
+    this.shift = shift;
+    this.station = station;
+  }
+
+  // returns how many tiles the board has
+  int size() {
+    return this.width * this.height;
+  }
+
+  // returns the packed bits of the tile at the given index
+  int tile(int i) {
+    if (i < 0 || i >= this.size()) {
+      throw new IndexOutOfBoundsException("No such tile: " + i);
+    }
+    Object node = this.root;
+    for (int s = this.shift; s > 0; s -= BITS) {
+      node = ((Object[]) node)[(i >>> s) & MASK];
+    }
+    return ((byte[]) node)[i & MASK];
+  }
+
+  // returns the connectors of the tile at the given index
+  int wires(int i) {
+    return this.tile(i) & PackedBoard.WIRES;
+  }
+
+  // returns the board with the connectors of the tile at the given index set to
+  // the given ones; this board if that changes nothing
+  PersistentBoard setWires(int i, int wires) {
+    int t = this.tile(i);
+    return this.with(i, (t & ~PackedBoard.WIRES) | (wires & PackedBoard.WIRES), this.station);
+  }
+
+  // returns the board with the tile at the given index set to the given packed
+  // bits and its station at the given index; this board if that changes nothing
+  PersistentBoard with(int i, int tile, int station) {
+    if (this.tile(i) == tile && this.station == station) {
+      return this;
+    }
+    return new PersistentBoard(this.width, this.height, this.set(this.root, this.shift, i, tile),
+        this.shift, station);
+  }
+
+  // returns a copy of the given subtrie, which is shift bits above the leaves,
+  // with the tile at the given index set to the given bits
+  Object set(Object node, int shift, int i, int tile) {
+    if (shift == 0) {
+      byte[] chunk = ((byte[]) node).clone();
+      chunk[i & MASK] = (byte) tile;
+      return chunk;
+    }
+    Object[] copy = ((Object[]) node).clone();
+    int k = (i >>> shift) & MASK;
+    copy[k] = this.set(copy[k], shift - BITS, i, tile);
+    return copy;
+  }
+
+  // returns the board with the tile at the given index rotated clockwise
+  PersistentBoard rotate(int i) {
+    return this.setWires(i, PackedBoard.rotateWires(this.wires(i)));
+  }
+
+  // returns the board with the station moved to the tile at the given index
+  PersistentBoard moveStation(int i) {
+    PersistentBoard board = this;
+    if (this.station >= 0) {
+      board = board.with(this.station, this.tile(this.station) & ~PackedBoard.STATION, -1);
+    }
+    return board.with(i, board.tile(i) | PackedBoard.STATION, i);
+  }
+
+  // returns the tiles of this board as a new packed board, unpowered
+  PackedBoard toPackedBoard() {
+    PackedBoard board = new PackedBoard(this.width, this.height);
+    this.copyInto(this.root, this.shift, 0, board.tiles);
+    return board;
+  }
+
+  // EFFECT: copies the tiles of the given subtrie, which is shift bits above the
+  // leaves and starts at the given index, into the given tiles
+  void copyInto(Object node, int shift, int start, byte[] tiles) {
+    if (shift == 0) {
+      System.arraycopy((byte[]) node, 0, tiles, start, Math.min(BRANCH, tiles.length - start));
+      return;
+    }
+    Object[] children = (Object[]) node;
+    for (int k = 0; k < BRANCH && children[k] != null; k++) {
+      this.copyInto(children[k], shift - BITS, start + (k << shift), tiles);
+    }
+  }
+
+  // EFFECT: sets the board of the given game, which must be of the same size,
+  // to this one and powers it, keeping its click count
+  void restore(LightEmAll game) {
+    if (game.width != this.width || game.height != this.height) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    game.restore(this.toPackedBoard(), game.countClicks);
+  }
+
+  // returns how many of the leaves of this board are shared with the given one,
+  // i.e. are the very same chunk of tiles
+  int sharedChunks(PersistentBoard other) {
+    return shared(this.root, other.root, this.shift);
+  }
+
+  // returns how many leaves of the given subtries, shift bits above the leaves,
+  // are the same
+  static int shared(Object node, Object other, int shift) {
+    if (node == null || other == null) {
+      return 0;
+    }
+    if (shift == 0) {
+      return node == other ? 1 : 0;
+    }
+    int count = 0;
+    for (int k = 0; k < BRANCH; k++) {
+      count += shared(((Object[]) node)[k], ((Object[]) other)[k], shift - BITS);
+    }
+    return count;
+  }
+}
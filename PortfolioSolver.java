@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// to solve a board with several strategies at once, each on its own thread and
+// its own copy of the board: the first to finish wins and the rest are cancelled.
+// The time every strategy ran is kept for tuning
+class PortfolioSolver {
+  ArrayList<ISolveStrategy> strategies;
+  // the results of the last solve: the solution, or null, the strategy that
+  // found it, and how long every strategy ran, in nanoseconds
+  int[] solution;
+  int winner;
+  long[] nanos;
+
+  // solves with propagation-first, depth-first from the station, and random restarts
+  PortfolioSolver() {
+    this(new ArrayList<ISolveStrategy>(Arrays.asList(new PropagationStrategy(),
+        new StationDfsStrategy(), new RestartStrategy(new Random(), 256))));
+  }
+
+  // solves with the given strategies
+  PortfolioSolver(ArrayList<ISolveStrategy> strategies) {
+    this.strategies = strategies;
+  }
+
+  // EFFECT: solves the given board, keeping the results; returns the wires of a
+  // solution, as a connector mask per tile, like Solver.solve, or null if there
+  // is none
+  int[] solve(PackedBoard board) {
+    int count = this.strategies.size();
+    AtomicBoolean cancelled = new AtomicBoolean(false);
+    AtomicInteger first = new AtomicInteger(-1);
+    int[][] results = new int[count][];
+    ArrayList<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+    for (int k = 0; k < count; k++) {
+      int which = k;
+      ISolveStrategy strategy = this.strategies.get(k);
+      PackedBoard copy = board.copy();
+      tasks.add(() -> {
+        long start = System.nanoTime();
+        results[which] = strategy.solve(copy, cancelled);
+        long time = System.nanoTime() - start;
+        // a strategy that ran to the end has the answer, whether or not there
+        // is a solution; only one that stopped early can lose the race
+        if (first.compareAndSet(-1, which)) {
+          cancelled.set(true);
+        }
+        return time;
+      });
+    }
+    ExecutorService executor = perTaskExecutor();
+    this.nanos = new long[count];
+    try {
+      ArrayList<Future<Long>> done = new ArrayList<Future<Long>>(executor.invokeAll(tasks));
+      for (int k = 0; k < count; k++) {
+        this.nanos[k] = done.get(k).get();
+      }
+    }
+    catch (InterruptedException e) {
+      cancelled.set(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while solving", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("Solving failed", e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    this.solution = results[first.get()];
+    if (this.solution == null) {
+      this.solution = Solver.wonWires(board);
+    }
+    this.winner = first.get();
+    return this.solution;
+  }
+
+  // EFFECT: solves the given game, rotating every tile into place and powering
+  // the board; returns false, changing nothing, if there is no solution
+  boolean solve(LightEmAll game) {
+    int[] wires = this.solve(game.pack());
+    if (wires == null) {
+      return false;
+    }
+    Solver.apply(game, wires);
+    return game.gameWon();
+  }
+
+  // returns the time every strategy of the last solve ran, one line per strategy
+  String report() {
+    StringBuilder report = new StringBuilder();
+    for (int k = 0; k < this.strategies.size(); k++) {
+      report.append(this.strategies.get(k).name()).append(": ")
+          .append(this.nanos[k] / 1000000).append(" ms")
+          .append(k == this.winner ? " (won)" : "").append("\n");
+    }
+    return report.toString();
+  }
+
+  // returns an executor that starts a thread per task: a virtual thread where the
+  // runtime has them, and a pooled platform thread where it does not
+  static ExecutorService perTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+}
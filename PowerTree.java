@@ -0,0 +1,168 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// to keep which tiles of a packed board are powered: the tiles the power station
+// reaches through wires that face each other. Every powered tile remembers the
+// neighbor it received its power from, so after a rotation only the tiles that
+// lost or gained power are visited. LightEmAll and HeadlessLightEmAll both power
+// their boards with it
+class PowerTree {
+  PackedBoard board;
+  // the tile each powered tile received its power from, by index,
+  // or -1 for the power station and unpowered tiles
+  int[] parent;
+  // scratch work list, by index
+  int[] work;
+  // how many tiles are powered
+  int count;
+  // told the index of every tile whose power changes on an update, or null
+  IntConsumer changed;
+
+  // powers the given board, telling the given consumer, if any, of every tile
+  // whose power changes on an update
+  PowerTree(PackedBoard board, IntConsumer changed) {
+    this.board = board;
+    this.parent = new int[board.tiles.length];
+    this.work = new int[board.tiles.length];
+    this.changed = changed;
+  }
+
+  // EFFECT: powers the tiles connected to the station at the given index, from scratch
+  void bfs(int station) {
+    byte[] tiles = this.board.tiles;
+    Arrays.fill(this.parent, -1);
+    // resets the board so nothing is connected
+    for (int i = 0; i < tiles.length; i++) {
+      tiles[i] &= ~PackedBoard.POWERED;
+    }
+    // lights up the power station; the powered bit marks the tiles we've been at
+    tiles[station] |= PackedBoard.POWERED;
+    this.work[0] = station;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int i = this.work[head];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        if (this.board.connected(i, d)) {
+          int n = this.board.neighbor(i, d);
+          if ((tiles[n] & PackedBoard.POWERED) == 0) {
+            tiles[n] |= PackedBoard.POWERED;
+            this.parent[n] = i;
+            this.work[tail++] = n;
+          }
+        }
+      }
+    }
+    this.count = tail;
+  }
+
+  // EFFECT: updates which tiles are powered after the tile at the given index was
+  // rotated, with the station at the other given index; gives the same result as bfs
+  void update(int i, int station) {
+    PackedBoard b = this.board;
+    int end = 0;
+    // cuts off every subtree whose power came through a wire of the tile that was
+    // turned away
+    if (b.has(i, PackedBoard.POWERED)) {
+      if (i != station && !this.linked(i, this.parent[i])) {
+        end = this.cut(i, end);
+      }
+      else {
+        for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+          int n = b.neighbor(i, d);
+          if (n >= 0 && this.parent[n] == i && !b.connected(i, d)) {
+            end = this.cut(n, end);
+          }
+        }
+      }
+    }
+    // the tile heads the list unless it was cut off itself
+    if (end == 0 || this.work[0] != i) {
+      this.work[end++] = i;
+    }
+    // keeps, in place, the tiles of the list that are powered or touch a powered tile
+    int tail = 0;
+    for (int k = 0; k < end; k++) {
+      int x = this.work[k];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM
+          && !b.has(x, PackedBoard.POWERED); d <<= 1) {
+        int n = b.neighbor(x, d);
+        if (n >= 0 && b.has(n, PackedBoard.POWERED) && b.connected(x, d)) {
+          this.power(x, n);
+        }
+      }
+      if (b.has(x, PackedBoard.POWERED)) {
+        this.work[tail++] = x;
+      }
+    }
+    // floods from those tiles into the unpowered tiles they are connected to
+    for (int head = 0; head < tail; head++) {
+      int x = this.work[head];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        int n = b.neighbor(x, d);
+        if (n >= 0 && !b.has(n, PackedBoard.POWERED) && b.connected(x, d)) {
+          this.power(n, x);
+          this.work[tail++] = n;
+        }
+      }
+    }
+  }
+
+  // EFFECT: powers the tile at the given index through its neighbor at the other
+  void power(int i, int from) {
+    this.board.set(i, PackedBoard.POWERED, true);
+    this.parent[i] = from;
+    this.count++;
+    if (this.changed != null) {
+      this.changed.accept(i);
+    }
+  }
+
+  // EFFECT: unpowers the tile at the given index and every tile powered through it,
+  // appending them to work from position start; returns the new end position
+  int cut(int i, int start) {
+    int end = start;
+    this.work[end++] = i;
+    for (int k = start; k < end; k++) {
+      int x = this.work[k];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        int n = this.board.neighbor(x, d);
+        if (n >= 0 && this.parent[n] == x && this.board.has(n, PackedBoard.POWERED)) {
+          this.work[end++] = n;
+        }
+      }
+    }
+    for (int k = start; k < end; k++) {
+      int x = this.work[k];
+      this.board.set(x, PackedBoard.POWERED, false);
+      this.parent[x] = -1;
+      this.count--;
+      if (this.changed != null) {
+        this.changed.accept(x);
+      }
+    }
+    return end;
+  }
+
+  // EFFECT: makes the tile at the given index the root of the power tree,
+  // reversing the power path that led to it
+  void reroot(int i) {
+    int prev = -1;
+    int cur = i;
+    while (cur != -1) {
+      int next = this.parent[cur];
+      this.parent[cur] = prev;
+      prev = cur;
+      cur = next;
+    }
+  }
+
+  // returns true if the tiles at the two given indices are neighbors wired to each other
+  boolean linked(int i, int j) {
+    for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+      if (this.board.neighbor(i, d) == j) {
+        return this.board.connected(i, d);
+      }
+    }
+    return false;
+  }
+}
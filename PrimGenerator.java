@@ -0,0 +1,49 @@
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+// to generate the tree with randomized prim's algorithm, growing one tree from a
+// random node by adding a random edge of its frontier at a time
+class PrimGenerator implements IMazeGenerator {
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    int size = width * height;
+    BitSet visited = new BitSet(size);
+    // every edge enters the frontier at most once, from its first visited end
+    int[] frontier = new int[Math.max(1, 2 * size - width - height)];
+    int count = 0;
+    int start = rand.nextInt(size);
+    visited.set(start);
+    count = this.addFrontier(start, width, height, visited, frontier, count);
+    while (count > 0) {
+      int k = rand.nextInt(count);
+      int e = frontier[k];
+      frontier[k] = frontier[--count];
+      int from = PackedEdges.from(e);
+      int to = PackedEdges.to(e, height);
+      int next = visited.get(from) ? to : from;
+      if (!visited.get(next)) {
+        sink.accept(e);
+        visited.set(next);
+        count = this.addFrontier(next, width, height, visited, frontier, count);
+      }
+    }
+  }
+
+  // EFFECT: adds the edges from the given node to its unvisited neighbors to the
+  // frontier, starting at the given count; returns the new count
+  int addFrontier(int i, int width, int height, BitSet visited, int[] frontier, int count) {
+    int r = i % height;
+    if (r > 0 && !visited.get(i - 1)) {
+      frontier[count++] = 2 * (i - 1) + 1;
+    }
+    if (r < height - 1 && !visited.get(i + 1)) {
+      frontier[count++] = 2 * i + 1;
+    }
+    if (i >= height && !visited.get(i - height)) {
+      frontier[count++] = 2 * (i - height);
+    }
+    if (i < (width - 1) * height && !visited.get(i + height)) {
+      frontier[count++] = 2 * i;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,16 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// to guess tiles in index order, i.e. column by column, leaving as much as
+// possible to propagation
+class PropagationStrategy implements ISolveStrategy {
+  public String name() {
+    return "propagation";
+  }
+
+  public int[] solve(PackedBoard board, AtomicBoolean cancelled) {
+    Solver s = new Solver(board);
+    s.cancelled = cancelled;
+    s.search(1);
+    return s.solution;
+  }
+}
@@ -0,0 +1,11 @@
+// to represent a bot that clicks tiles at random, drawing from the game's own
+// generator so a seed plays the same game the same way every time
+class RandomBot implements IBot {
+  public String name() {
+    return "random";
+  }
+
+  public int move(LightEmAll game) {
+    return game.rand.nextInt(game.nodes.size());
+  }
+}
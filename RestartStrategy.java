@@ -0,0 +1,35 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// to guess with random masks, starting over with another seed after a number
+// of guesses that doubles every run, so an unlucky early guess costs little
+class RestartStrategy implements ISolveStrategy {
+  Random rand;
+  long firstLimit;
+
+  // restarts with seeds from the given Random, first after the given number of guesses
+  RestartStrategy(Random rand, long firstLimit) {
+    this.rand = rand;
+    this.firstLimit = firstLimit;
+  }
+
+  public String name() {
+    return "random restarts";
+  }
+
+  public int[] solve(PackedBoard board, AtomicBoolean cancelled) {
+    long limit = this.firstLimit;
+    while (!cancelled.get()) {
+      Solver s = new Solver(board);
+      s.cancelled = cancelled;
+      s.rand = new Random(this.rand.nextLong());
+      s.guessLimit = limit;
+      s.search(1);
+      if (!s.stopped) {
+        return s.solution;
+      }
+      limit *= 2;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,443 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// to solve a shuffled LightEmAll board: finds the orientation of every tile that
+// powers every tile. The orientations left to a tile are kept as a set of
+// connector masks, one bit per mask, so symmetric tiles such as straights and
+// crosses have fewer of them. Constraint propagation removes every mask that
+// points a wire off the board or disagrees with what a neighbor must or cannot
+// have; a tile is only guessed when propagation stalls, and a guess is undone
+// through a trail of the masks it removed. After every guess the components of
+// certain links it touched are checked for loops and for islands cut off from the
+// rest of the board, so most wrong guesses fail at once rather than deep down.
+// A full assignment is a solution when its wires connect every tile.
+// The search only finds perfect wirings: every wire meets one facing it and the
+// wires form a spanning tree, as on every board dealt from a spanning tree. The
+// game is won as soon as every tile is powered, so a board built by hand may also
+// be won with wires left dangling or closing a loop; the search cannot find such
+// wirings, but a board that is already won that way is taken as its own solution
+class Solver {
+  // the set of masks that have a wire in each direction, by direction bit
+  static final int[] HAS = new int[PackedBoard.BOTTOM + 1];
+
+  static {
+    for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+      for (int m = 0; m < 16; m++) {
+        if ((m & d) != 0) {
+          HAS[d] |= 1 << m;
+        }
+      }
+    }
+  }
+
+  // the board being solved; its tiles are never changed
+  PackedBoard board;
+  int size;
+  // the masks every tile may still take
+  int[] domain;
+  // whether every tile is a dead end, i.e. has a single wire
+  boolean[] deadEnd;
+  // the trail of (tile, masks before the change) pairs, for undoing guesses
+  int[] trail;
+  int trailSize;
+  // the propagation queue, and which tiles are in it
+  int[] queue;
+  int queueHead;
+  int queueCount;
+  boolean[] queued;
+  // the tiles of the component being checked, and the check that last saw
+  // every tile
+  int[] work;
+  int[] seen;
+  int checks;
+  // the order tiles are guessed in
+  int[] order;
+  // picks the mask to try at random when not null, else the lowest one first
+  Random rand;
+  // the search stops after this many guesses, or once this flag is raised
+  long guessLimit = Long.MAX_VALUE;
+  AtomicBoolean cancelled = new AtomicBoolean(false);
+  // the first solution found, as a connector mask per tile, or null
+  int[] solution;
+  // how many guesses the last search made, and whether it stopped early
+  long guesses;
+  boolean stopped;
+
+  // makes a solver for the given board that guesses tiles in index order
+  Solver(PackedBoard board) {
+    this(board, null);
+  }
+
+  // makes a solver for the given board that guesses tiles in the given order,
+  // or in index order if it is null
+  Solver(PackedBoard board, int[] order) {
+    this.board = board;
+    this.size = board.tiles.length;
+    this.domain = new int[this.size];
+    this.deadEnd = new boolean[this.size];
+    this.trail = new int[16];
+    this.queue = new int[this.size];
+    this.queued = new boolean[this.size];
+    this.work = new int[this.size];
+    this.seen = new int[this.size];
+    this.order = order;
+    if (order == null) {
+      this.order = new int[this.size];
+      for (int i = 0; i < this.size; i++) {
+        this.order[i] = i;
+      }
+    }
+    for (int i = 0; i < this.size; i++) {
+      int wires = board.wires(i);
+      for (int k = 0; k < 4; k++) {
+        this.domain[i] |= 1 << wires;
+        wires = PackedBoard.rotateWires(wires);
+      }
+      this.deadEnd[i] = Integer.bitCount(wires) == 1;
+    }
+  }
+
+  // returns the wires of a solution of the given board, as a connector mask per
+  // tile: a perfect wiring, or else the board's own wires if they already power
+  // every tile; null if there is neither
+  static int[] solve(PackedBoard board) {
+    Solver s = new Solver(board);
+    s.search(1);
+    return s.solution == null ? wonWires(board) : s.solution;
+  }
+
+  // returns the wires of the given board as they are, as a connector mask per
+  // tile, if they power every tile from its station, else null
+  static int[] wonWires(PackedBoard board) {
+    int station = -1;
+    for (int i = 0; i < board.tiles.length; i++) {
+      if (board.has(i, PackedBoard.STATION)) {
+        station = i;
+      }
+    }
+    if (station < 0) {
+      return null;
+    }
+    PowerTree power = new PowerTree(board.copy(), null);
+    power.bfs(station);
+    if (power.count < board.tiles.length) {
+      return null;
+    }
+    int[] wires = new int[board.tiles.length];
+    for (int i = 0; i < wires.length; i++) {
+      wires[i] = board.wires(i);
+    }
+    return wires;
+  }
+
+  // returns how many different wirings of the given board connect every tile,
+  // counting no further than the given cap: e.g. with a cap of 2, whether it has
+  // no solution, exactly one, or more than one. Rotations of a symmetric tile
+  // that give it the same wires are the same wiring
+  static int countSolutions(PackedBoard board, int cap) {
+    return new Solver(board).search(cap);
+  }
+
+  // EFFECT: solves the given game, rotating every tile into place and powering
+  // the board; returns false, changing nothing, if there is no solution
+  static boolean solve(LightEmAll game) {
+    int[] wires = solve(game.pack());
+    if (wires == null) {
+      return false;
+    }
+    apply(game, wires);
+    return true;
+  }
+
+  // EFFECT: rotates every tile of the given game to the given connector masks,
+  // one of its rotations per tile, and powers the board
+  static void apply(LightEmAll game, int[] wires) {
+    for (int i = 0; i < wires.length; i++) {
+      GamePiece g = game.nodes.get(i);
+      while ((g.pack() & PackedBoard.WIRES) != wires[i]) {
+        game.rotate(g);
+      }
+    }
+    game.bfs();
+  }
+
+  // searches for solutions until the given number of them is found, there are
+  // no more, or the search is stopped early; returns how many were found and
+  // keeps the first in solution
+  int search(int limit) {
+    int found = 0;
+    this.guesses = 0;
+    this.stopped = false;
+    for (int i = 0; i < this.size; i++) {
+      this.enqueue(i);
+    }
+    if (!this.propagate() || !this.consistent(0)) {
+      return 0;
+    }
+    // the choice points: the tile guessed, the masks not yet tried for it,
+    // the trail size and the scan position before the guess
+    int[] tiles = new int[16];
+    int[] untried = new int[16];
+    int[] marks = new int[16];
+    int[] cursors = new int[16];
+    int depth = 0;
+    int cursor = 0;
+    boolean backtrack = false;
+    while (true) {
+      if (!backtrack) {
+        cursor = this.nextUndecided(cursor);
+        if (cursor == this.size) {
+          if (this.connected()) {
+            if (found == 0) {
+              this.solution = this.assignment();
+            }
+            found++;
+            if (found >= limit) {
+              return found;
+            }
+          }
+          backtrack = true;
+        }
+        else {
+          if (depth == tiles.length) {
+            tiles = Arrays.copyOf(tiles, depth * 2);
+            untried = Arrays.copyOf(untried, depth * 2);
+            marks = Arrays.copyOf(marks, depth * 2);
+            cursors = Arrays.copyOf(cursors, depth * 2);
+          }
+          tiles[depth] = this.order[cursor];
+          untried[depth] = this.domain[this.order[cursor]];
+          marks[depth] = this.trailSize;
+          cursors[depth] = cursor;
+          depth++;
+        }
+      }
+      // tries the next mask of the deepest choice point that has one left
+      while (depth > 0 && untried[depth - 1] == 0) {
+        depth--;
+        this.undo(marks[depth]);
+      }
+      if (depth == 0) {
+        return found;
+      }
+      if (this.guesses >= this.guessLimit || this.cancelled.get()) {
+        this.stopped = true;
+        return found;
+      }
+      int top = depth - 1;
+      this.undo(marks[top]);
+      cursor = cursors[top];
+      int mask = this.pick(untried[top]);
+      untried[top] &= ~mask;
+      this.guesses++;
+      this.restrict(tiles[top], mask);
+      backtrack = !this.propagate() || !this.consistent(marks[top]);
+    }
+  }
+
+  // returns the first position in the guessing order at or after the given one
+  // whose tile has more than one mask left, or size if there is none
+  int nextUndecided(int from) {
+    int i = from;
+    while (i < this.size && Integer.bitCount(this.domain[this.order[i]]) == 1) {
+      i++;
+    }
+    return i;
+  }
+
+  // returns the mask to try next out of the given untried ones
+  int pick(int untried) {
+    int mask = Integer.lowestOneBit(untried);
+    if (this.rand != null) {
+      for (int k = this.rand.nextInt(Integer.bitCount(untried)); k > 0; k--) {
+        untried &= ~mask;
+        mask = Integer.lowestOneBit(untried);
+      }
+    }
+    return mask;
+  }
+
+  // EFFECT: restricts the masks of the given tile to the given ones,
+  // recording the change on the trail and queueing the tile's neighbors
+  void restrict(int i, int masks) {
+    if (this.trailSize + 2 > this.trail.length) {
+      this.trail = Arrays.copyOf(this.trail, this.trail.length * 2);
+    }
+    this.trail[this.trailSize++] = i;
+    this.trail[this.trailSize++] = this.domain[i];
+    this.domain[i] = masks;
+    for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+      int n = this.board.neighbor(i, d);
+      if (n >= 0) {
+        this.enqueue(n);
+      }
+    }
+  }
+
+  // EFFECT: undoes every change recorded on the trail after the given size
+  void undo(int mark) {
+    while (this.trailSize > mark) {
+      this.trailSize -= 2;
+      this.domain[this.trail[this.trailSize]] = this.trail[this.trailSize + 1];
+    }
+  }
+
+  // EFFECT: queues the given tile for propagation unless it is queued
+  void enqueue(int i) {
+    if (!this.queued[i]) {
+      this.queued[i] = true;
+      this.queue[(this.queueHead + this.queueCount) % this.size] = i;
+      this.queueCount++;
+    }
+  }
+
+  // EFFECT: removes masks until every tile agrees with the border and its
+  // neighbors; returns false, emptying the queue, if some tile has none left
+  boolean propagate() {
+    while (this.queueCount > 0) {
+      int i = this.queue[this.queueHead];
+      this.queueHead = (this.queueHead + 1) % this.size;
+      this.queueCount--;
+      this.queued[i] = false;
+      int masks = this.revise(i);
+      if (masks == 0) {
+        while (this.queueCount > 0) {
+          this.queued[this.queue[this.queueHead]] = false;
+          this.queueHead = (this.queueHead + 1) % this.size;
+          this.queueCount--;
+        }
+        return false;
+      }
+      if (masks != this.domain[i]) {
+        this.restrict(i, masks);
+      }
+    }
+    return true;
+  }
+
+  // returns the masks of the given tile that agree with the border and with
+  // what its neighbors must or cannot have
+  int revise(int i) {
+    int masks = this.domain[i];
+    for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+      int n = this.board.neighbor(i, d);
+      if (n < 0) {
+        masks &= ~HAS[d];
+      }
+      else {
+        int facing = this.domain[n];
+        int od = PackedBoard.opposite(d);
+        if ((facing & ~HAS[od]) == 0) {
+          masks &= HAS[d];
+        }
+        else if ((facing & HAS[od]) == 0
+            || (this.deadEnd[i] && this.deadEnd[n] && this.size > 2)) {
+          // two dead ends joined to each other would be cut off from the rest
+          masks &= ~HAS[d];
+        }
+      }
+    }
+    return masks;
+  }
+
+  // returns true if no tile changed since the given trail size is in a component
+  // of certain links that closes a loop or is cut off from the rest of the board.
+  // A solution is a spanning tree, so neither can be completed into one
+  boolean consistent(int mark) {
+    this.checks++;
+    if (mark == 0) {
+      for (int i = 0; i < this.size; i++) {
+        if (this.seen[i] != this.checks && !this.component(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int k = mark; k < this.trailSize; k += 2) {
+      int i = this.trail[k];
+      if (this.seen[i] != this.checks && !this.component(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns true if the component of certain links of the given tile neither
+  // closes a loop nor is cut off from the rest of the board
+  boolean component(int start) {
+    this.seen[start] = this.checks;
+    this.work[0] = start;
+    int tail = 1;
+    // every certain link is counted from both of its ends
+    int ends = 0;
+    boolean open = false;
+    for (int head = 0; head < tail; head++) {
+      int i = this.work[head];
+      int masks = this.domain[i];
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        if ((masks & ~HAS[d]) == 0) {
+          ends++;
+          int n = this.board.neighbor(i, d);
+          if (this.seen[n] != this.checks) {
+            this.seen[n] = this.checks;
+            this.work[tail++] = n;
+          }
+        }
+        else if ((masks & HAS[d]) != 0) {
+          open = true;
+        }
+      }
+    }
+    return ends / 2 < tail && (open || tail == this.size);
+  }
+
+  // returns the current assignment, which must be complete, as a mask per tile
+  int[] assignment() {
+    int[] wires = new int[this.size];
+    for (int i = 0; i < this.size; i++) {
+      wires[i] = Integer.numberOfTrailingZeros(this.domain[i]);
+    }
+    return wires;
+  }
+
+  // returns true if the given wires, one rotation of every tile of the given
+  // board, agree with each other and connect every tile
+  static boolean connects(PackedBoard board, int[] wires) {
+    Solver s = new Solver(board);
+    for (int i = 0; i < s.size; i++) {
+      if ((s.domain[i] & (1 << wires[i])) == 0) {
+        return false;
+      }
+      s.domain[i] = 1 << wires[i];
+    }
+    for (int i = 0; i < s.size; i++) {
+      if (s.revise(i) == 0) {
+        return false;
+      }
+    }
+    return s.connected();
+  }
+
+  // returns true if the current complete assignment connects every tile
+  boolean connected() {
+    int[] seen = new int[this.size];
+    int[] work = new int[this.size];
+    seen[0] = 1;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int i = work[head];
+      int wires = Integer.numberOfTrailingZeros(this.domain[i]);
+      for (int d = PackedBoard.LEFT; d <= PackedBoard.BOTTOM; d <<= 1) {
+        if ((wires & d) != 0) {
+          int n = this.board.neighbor(i, d);
+          if (seen[n] == 0) {
+            seen[n] = 1;
+            work[tail++] = n;
+          }
+        }
+      }
+    }
+    return tail == this.size;
+  }
+}
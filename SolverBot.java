@@ -0,0 +1,26 @@
+// to represent a bot that solves the board as it first sees it, then clicks every
+// tile that is not turned to that solution yet
+class SolverBot implements IBot {
+  // the solution of the game, as wires by node index, once solved
+  LightEmAll game;
+  int[] solution;
+
+  public String name() {
+    return "solver";
+  }
+
+  public int move(LightEmAll game) {
+    if (this.game != game) {
+      this.game = game;
+      this.solution = Solver.solve(game.pack());
+    }
+    if (this.solution != null) {
+      for (int i = 0; i < this.solution.length; i++) {
+        if ((game.nodes.get(i).pack() & PackedBoard.WIRES) != this.solution[i]) {
+          return i;
+        }
+      }
+    }
+    return 0;
+  }
+}
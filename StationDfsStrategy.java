@@ -0,0 +1,48 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// to guess tiles in depth-first order from the power station, so every guess
+// is next to tiles already decided
+class StationDfsStrategy implements ISolveStrategy {
+  public String name() {
+    return "station dfs";
+  }
+
+  public int[] solve(PackedBoard board, AtomicBoolean cancelled) {
+    Solver s = new Solver(board, this.order(board));
+    s.cancelled = cancelled;
+    s.search(1);
+    return s.solution;
+  }
+
+  // returns every tile of the given board in depth-first order from its power
+  // station, or from the first tile if it has none
+  int[] order(PackedBoard board) {
+    int size = board.tiles.length;
+    int start = 0;
+    for (int i = 0; i < size; i++) {
+      if (board.has(i, PackedBoard.STATION)) {
+        start = i;
+      }
+    }
+    int[] order = new int[size];
+    int count = 0;
+    boolean[] seen = new boolean[size];
+    int[] stack = new int[4 * size];
+    int top = 0;
+    stack[top++] = start;
+    while (top > 0) {
+      int i = stack[--top];
+      if (!seen[i]) {
+        seen[i] = true;
+        order[count++] = i;
+        for (int d = PackedBoard.BOTTOM; d >= PackedBoard.LEFT; d >>= 1) {
+          int n = board.neighbor(i, d);
+          if (n >= 0 && !seen[n]) {
+            stack[top++] = n;
+          }
+        }
+      }
+    }
+    return order;
+  }
+}
@@ -0,0 +1,90 @@
+import java.awt.Color;
+import java.util.HashMap;
+
+import javalib.worldimages.*;
+
+// to represent the images of tiles, and their pixels, built once per tile size,
+// wire width, shape, wire color and power station flag and then shared by every
+// frame of every game. There are only 16 connector shapes, so a board draws from
+// a few dozen images per size at most, kept in a plain array indexed by color and
+// shape. Every size and wire width has its own array, so zooming back and forth or
+// starting a new game builds nothing again. Games on other threads may share it,
+// so it is locked
+class TileImageCache {
+  // the cache every game draws from
+  static final TileImageCache SHARED = new TileImageCache();
+  // the wire colors a tile is drawn in, by color index
+  static final Color[] COLORS = {Color.gray, Color.yellow, Color.cyan};
+  static final int UNPOWERED = 0;
+  static final int POWERED = 1;
+  static final int HINTED = 2;
+  // how many shapes there are: the connectors and the power station flag
+  static final int SHAPES = (PackedBoard.WIRES | PackedBoard.STATION) + 1;
+
+  // the cached images of every tile size and wire width, by key(size, wireWidth),
+  // each at color * SHAPES + shape, or null if not built yet
+  HashMap<Integer, WorldImage[]> sizes = new HashMap<Integer, WorldImage[]>();
+  // the cached pixels of every tile size and wire width, laid out the same way
+  HashMap<Integer, Color[][]> rasters = new HashMap<Integer, Color[][]>();
+  // the tile size and wire width asked for last, and their images and pixels
+  int size = -1;
+  int wireWidth = -1;
+  WorldImage[] images;
+  Color[][] pixels;
+  // how many images and how many tiles of pixels are cached, of every size
+  int count;
+  int painted;
+
+  // returns the image of the given GamePiece drawn with the given size, wire width
+  // and color index, building it only the first time it is asked for
+  synchronized WorldImage get(GamePiece g, int size, int wireWidth, int color) {
+    this.resize(size, wireWidth);
+    int shape = g.pack() & (PackedBoard.WIRES | PackedBoard.STATION);
+    int key = color * SHAPES + shape;
+    WorldImage image = this.images[key];
+    if (image == null) {
+      GamePiece model = new GamePiece(0, 0, false, false, false, false, false, false);
+      model.unpack(shape);
+      image = model.tileImage(size, wireWidth, COLORS[color], model.powerStation());
+      this.images[key] = image;
+      this.count++;
+    }
+    return image;
+  }
+
+  // returns the pixels of the image of the given GamePiece drawn with the given
+  // size, wire width and color index, row by row, painting them only the first
+  // time they are asked for; nothing may change them
+  synchronized Color[] pixels(GamePiece g, int size, int wireWidth, int color) {
+    this.resize(size, wireWidth);
+    int shape = g.pack() & (PackedBoard.WIRES | PackedBoard.STATION);
+    int key = color * SHAPES + shape;
+    Color[] pixels = this.pixels[key];
+    if (pixels == null) {
+      GamePiece model = new GamePiece(0, 0, false, false, false, false, false, false);
+      model.unpack(shape);
+      pixels = model.tilePixels(size, wireWidth, COLORS[color], model.powerStation());
+      this.pixels[key] = pixels;
+      this.painted++;
+    }
+    return pixels;
+  }
+
+  // EFFECT: makes the images and pixels of the given tile size and wire width the
+  // ones looked up, unless they already are
+  void resize(int size, int wireWidth) {
+    if (size != this.size || wireWidth != this.wireWidth) {
+      this.images = this.sizes.computeIfAbsent(key(size, wireWidth),
+          k -> new WorldImage[COLORS.length * SHAPES]);
+      this.pixels = this.rasters.computeIfAbsent(key(size, wireWidth),
+          k -> new Color[COLORS.length * SHAPES][]);
+      this.size = size;
+      this.wireWidth = wireWidth;
+    }
+  }
+
+  // returns the key of the images of the given tile size and wire width
+  static int key(int size, int wireWidth) {
+    return size << 16 | wireWidth;
+  }
+}
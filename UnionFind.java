@@ -0,0 +1,62 @@
+// to represent disjoint sets of the integers 0 to size - 1,
+// e.g. the node indices of a LightEmAll board
+class UnionFind {
+  // the parent of every element; roots are their own parent
+  int[] parent;
+  // an upper bound on the height of the tree under every root
+  int[] rank;
+  // how many disjoint sets there are
+  int sets;
+
+  // makes every element its own set
+  UnionFind(int size) {
+    this.parent = new int[size];
+    this.rank = new int[size];
+    this.sets = size;
+    for (int i = 0; i < size; i++) {
+      this.parent[i] = i;
+    }
+  }
+
+  // finds the representative of the given element
+  // EFFECT: points every element on the way directly at the representative
+  int find(int i) {
+    int root = i;
+    while (this.parent[root] != root) {
+      root = this.parent[root];
+    }
+    while (this.parent[i] != root) {
+      int next = this.parent[i];
+      this.parent[i] = root;
+      i = next;
+    }
+    return root;
+  }
+
+  // returns true if the two given elements are in the same set
+  boolean same(int a, int b) {
+    return this.find(a) == this.find(b);
+  }
+
+  // EFFECT: unions the sets of the two given elements, hanging the lower ranked
+  // root under the other; returns false if they were already in the same set
+  boolean union(int a, int b) {
+    int ra = this.find(a);
+    int rb = this.find(b);
+    if (ra == rb) {
+      return false;
+    }
+    if (this.rank[ra] < this.rank[rb]) {
+      this.parent[ra] = rb;
+    }
+    else if (this.rank[ra] > this.rank[rb]) {
+      this.parent[rb] = ra;
+    }
+    else {
+      this.parent[rb] = ra;
+      this.rank[ra]++;
+    }
+    this.sets--;
+    return true;
+  }
+}
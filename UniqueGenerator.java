@@ -0,0 +1,51 @@
+import java.util.random.RandomGenerator;
+
+// to generate trees whose boards have exactly one solution, by asking another
+// generator again until one does. The shapes of the tiles, and so the number of
+// solutions, depend only on the tree, never on the shuffle. Small boards are
+// usually unique at once; the larger the board the more tries it takes, so
+// generation gives up after a number of tries and keeps the last tree
+class UniqueGenerator implements IMazeGenerator {
+  IMazeGenerator generator;
+  int maxTries;
+  // how many trees the last generate tried, and whether the one it kept is unique
+  int tries;
+  boolean unique;
+
+  // generates with the given generator, trying at most the given number of trees
+  UniqueGenerator(IMazeGenerator generator, int maxTries) {
+    if (maxTries < 1) {
+      throw new IllegalArgumentException("Invalid number of tries");
+    }
+    this.generator = generator;
+    this.maxTries = maxTries;
+  }
+
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    int[] edges = new int[width * height - 1];
+    this.unique = false;
+    this.tries = 0;
+    while (!this.unique && this.tries < this.maxTries) {
+      int[] count = new int[1];
+      this.generator.generate(width, height, rand, e -> edges[count[0]++] = e);
+      this.tries++;
+      this.unique = Solver.countSolutions(wired(width, height, edges), 2) == 1;
+    }
+    for (int e : edges) {
+      sink.accept(e);
+    }
+  }
+
+  // returns a width x height board wired along the given tree edges, solved
+  static PackedBoard wired(int width, int height, int[] edges) {
+    PackedBoard board = new PackedBoard(width, height);
+    for (int e : edges) {
+      int from = PackedEdges.from(e);
+      int to = PackedEdges.to(e, height);
+      boolean across = to == from + height;
+      board.set(from, across ? PackedBoard.RIGHT : PackedBoard.BOTTOM, true);
+      board.set(to, across ? PackedBoard.LEFT : PackedBoard.TOP, true);
+    }
+    return board;
+  }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+
+class Utils {
+
+  // makes a list of nodes from the board
+  ArrayList<GamePiece> listNode(ArrayList<ArrayList<GamePiece>> board) {
+    ArrayList<GamePiece> nodeList = new ArrayList<GamePiece>();
+    for (ArrayList<GamePiece> gp: board) {
+      nodeList.addAll(gp);
+    }
+    return nodeList;
+  }
+
+  // EFFECT: makes every GamePiece of the given column-major board a view of its
+  // tile of one packed board, in node index order, unless they already are
+  void share(ArrayList<ArrayList<GamePiece>> board) {
+    int height = board.get(0).size();
+    PackedBoard store = board.get(0).get(0).store;
+    boolean shared = store.width == board.size() && store.height == height;
+    for (int c = 0; c < board.size() && shared; c++) {
+      for (int r = 0; r < height && shared; r++) {
+        GamePiece g = board.get(c).get(r);
+        shared = g.store == store && g.index == c * height + r;
+      }
+    }
+    if (!shared) {
+      store = new PackedBoard(board.size(), height);
+      for (int c = 0; c < board.size(); c++) {
+        for (int r = 0; r < height; r++) {
+          board.get(c).get(r).moveTo(store, c * height + r);
+        }
+      }
+    }
+  }
+
+  //returns column or row location of powerRow
+  int powerLocation(String s, ArrayList<ArrayList<GamePiece>> board) {
+    int loc = -1;
+    for (int c = 0; c < board.size(); c++) {
+      for (int r = 0; r < board.get(c).size(); r++) {
+        if (board.get(c).get(r).powerStation()) {
+          if (s.equals("row")) {
+            loc = r;
+          }
+          if (s.equals("col")) {
+            loc = c;
+          }
+        }
+      }
+    }
+    if (loc == -1) {
+      throw new IllegalArgumentException("No PowerStation");
+    }
+    else {
+      return loc;
+    }
+  }
+
+  // generates a board that fits in the window without scrolling
+  ArrayList<ArrayList<GamePiece>> makeBoard(int width, int height) {
+    return this.makeBoard(width, height, 20, 14);
+  }
+
+  // generates a board of at most the given width and height;
+  // HeadlessLightEmAll plays boards too large for GamePieces
+  ArrayList<ArrayList<GamePiece>> makeBoard(int width, int height, int maxWidth,
+      int maxHeight) {
+    if (width < 2 || width > maxWidth || height < 2 || height > maxHeight) {
+      throw new IllegalArgumentException("Invalid height or width");
+    }
+    // every GamePiece is a view of its tile of one packed board
+    PackedBoard store = new PackedBoard(width, height);
+    ArrayList<ArrayList<GamePiece>> board = new ArrayList<ArrayList<GamePiece>>();
+    for (int c = 0; c < width; c++) {
+      ArrayList<GamePiece> column = new ArrayList<GamePiece>();
+      for (int r = 0; r < height; r++) {
+        column.add(new GamePiece(c, r, store, c * height + r));
+      }
+      board.add(column);
+    }
+    return board;
+  }
+
+  // EFFECT: draws the game piece configurations 
+  void boardComplete(ArrayList<Edge> edges) {
+    for (int i = 0; i < edges.size(); i++) {
+      GamePiece from = edges.get(i).fromNode;
+      GamePiece to = edges.get(i).toNode;
+      int wiring = PackedBoard.wiring(from.col, from.row, to.col, to.row);
+      from.unpack(from.pack() | (wiring & PackedBoard.WIRES));
+      to.unpack(to.pack() | (wiring >> 4));
+    }
+  }
+
+  //EFFECT: generates the different pieces 
+  void makePieces(ArrayList<ArrayList<GamePiece>> board, int powerRow, int powerCol) {
+    for (int c = 0; c < board.size(); c++) {
+      for (int r = 0; r < board.get(c).size(); r++) {
+        if (r < board.get(c).size() - 1) {
+          board.get(c).get(r).setBottom(true);
+        }
+        if (r != 0) {
+          board.get(c).get(r).setTop(true);
+        }
+        if (r == powerRow && c < board.size() - 1) {
+          board.get(c).get(r).setRight(true);
+        }
+        if (r == powerRow && c > 0) {
+          board.get(c).get(r).setLeft(true);
+        }
+        if (r == powerRow && c == powerCol) {
+          board.get(c).get(r).setPowerStation(true);
+        }
+      }
+    }
+  }
+
+  // sorts the edges based on increasing length
+  ArrayList<Edge> sortEdges(ArrayList<Edge> arr) {
+    arr.sort((e1, e2) -> Integer.compare(e1.weight, e2.weight));
+    return arr;
+  }
+
+}
@@ -0,0 +1,49 @@
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+// to generate the tree with wilson's algorithm, joining loop-erased random walks
+// to the tree, so every spanning tree of the grid is equally likely
+class WilsonGenerator implements IMazeGenerator {
+  public void generate(int width, int height, RandomGenerator rand, IEdgeSink sink) {
+    int size = width * height;
+    BitSet inTree = new BitSet(size);
+    // the node each node of the current walk last left towards
+    int[] next = new int[size];
+    inTree.set(rand.nextInt(size));
+    for (int i = 0; i < size; i++) {
+      // walks randomly until reaching the tree; overwriting next erases the loops
+      int u = i;
+      while (!inTree.get(u)) {
+        next[u] = this.randomNeighbor(u, width, height, rand);
+        u = next[u];
+      }
+      // adds the loop-erased walk to the tree
+      u = i;
+      while (!inTree.get(u)) {
+        sink.accept(PackedEdges.between(u, next[u], height));
+        inTree.set(u);
+        u = next[u];
+      }
+    }
+  }
+
+  // returns a random neighbor of the given node
+  int randomNeighbor(int i, int width, int height, RandomGenerator rand) {
+    while (true) {
+      int d = rand.nextInt(4);
+      int r = i % height;
+      if (d == 0 && r > 0) {
+        return i - 1;
+      }
+      if (d == 1 && r < height - 1) {
+        return i + 1;
+      }
+      if (d == 2 && i >= height) {
+        return i - height;
+      }
+      if (d == 3 && i < (width - 1) * height) {
+        return i + height;
+      }
+    }
+  }
+}